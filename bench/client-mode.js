@@ -0,0 +1,24 @@
+// Сравнение режимов шлюза blocking и reactive: каждый VU держит одно keep-alive соединение
+// и по кругу запрашивает GET /users у шлюза, за которым стоит bench/slow-server.py.
+// Запуск обоих режимов: bench/client-mode.sh; сравнивать http_reqs/s и med у http_req_duration.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const GATEWAY = __ENV.GATEWAY_URL || 'http://localhost:18080';
+
+export const options = {
+    scenarios: {
+        clients: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 1000),
+            duration: __ENV.DURATION || '25s',
+            gracefulStop: '60s',
+        },
+    },
+    summaryTrendStats: ['med', 'p(99)', 'max'],
+};
+
+export default function () {
+    const response = http.get(`${GATEWAY}/users`, { timeout: '120s' });
+    check(response, { 'status 200': r => r.status === 200 });
+}
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Прогон bench/client-mode.js против шлюза в режимах blocking и reactive за медленной заглушкой сервера.
+# Нужны собранный шлюз (mvn -pl gateway package), python3 и k6.
+# Параметры: VUS (1000), DURATION (25s), DELAY — задержка заглушки в секундах (2).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=gateway/target/shareit-gateway-0.0.1-SNAPSHOT.jar
+VUS=${VUS:-1000}
+DURATION=${DURATION:-25s}
+DELAY=${DELAY:-2}
+STUB_PORT=19090
+GATEWAY_PORT=18080
+
+python3 bench/slow-server.py "$DELAY" "$STUB_PORT" &
+STUB=$!
+trap 'kill $STUB 2>/dev/null' EXIT
+
+for mode in blocking reactive; do
+    # Ограничения пула, bulkhead и таймауты подняты, чтобы упираться в модель потоков, а не в лимиты маршрута.
+    java -Xss512k -jar "$JAR" \
+        --server.port=$GATEWAY_PORT \
+        --shareit-server.url=http://127.0.0.1:$STUB_PORT \
+        --shareit-server.client-mode=$mode \
+        --shareit-server.pool.max-total=5000 \
+        --shareit-server.pool.max-per-route=5000 \
+        --shareit-server.pool.acquire-timeout=30s \
+        --shareit-server.read-timeout=60s \
+        --shareit-gateway.cache.enabled=false \
+        --spring.mvc.async.request-timeout=120s \
+        --resilience4j.bulkhead.configs.default.max-concurrent-calls=10000 \
+        --resilience4j.timelimiter.configs.default.timeout-duration=60s \
+        --resilience4j.circuitbreaker.configs.default.slow-call-duration-threshold=60s \
+        --logging.level.ru.practicum=WARN > "${TMPDIR:-/tmp}/shareit-gateway-$mode.log" 2>&1 &
+    GATEWAY=$!
+    until curl -sf "http://localhost:$GATEWAY_PORT/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    echo "=== $mode, $VUS клиентов, заглушка отвечает за ${DELAY} с"
+    # Прогрев перед замером.
+    k6 run --quiet --no-summary -e GATEWAY_URL=http://localhost:$GATEWAY_PORT -e VUS=200 -e DURATION=8s bench/client-mode.js
+    k6 run --quiet -e GATEWAY_URL=http://localhost:$GATEWAY_PORT -e VUS="$VUS" -e DURATION="$DURATION" bench/client-mode.js
+
+    kill $GATEWAY
+    wait $GATEWAY 2>/dev/null || true
+done
@@ -0,0 +1,64 @@
+// Нагрузка на шлюз: чтение предметов и бронирований, изредка новое бронирование.
+// Запуск: docker compose --env-file bench/replicas.env --profile replicas --profile bench run --rm bench
+// Сравнивать http_reqs/s с запуском без --env-file и --profile replicas (один экземпляр сервера).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const GATEWAY = __ENV.GATEWAY_URL || 'http://localhost:8080';
+const ITEMS = 50;
+const BOOKERS = 20;
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 100),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+};
+
+function post(path, body, userId) {
+    const headers = { 'Content-Type': 'application/json' };
+    if (userId) {
+        headers['X-Sharer-User-Id'] = String(userId);
+    }
+    return http.post(`${GATEWAY}${path}`, JSON.stringify(body), { headers });
+}
+
+export function setup() {
+    const run = Date.now();
+    const owner = post('/users', { name: 'owner', email: `owner-${run}@bench.ru` }).json('id');
+    const items = [];
+    for (let i = 0; i < ITEMS; i++) {
+        items.push(post('/items', { name: `item ${i}`, description: 'bench', available: true }, owner).json('id'));
+    }
+    const bookers = [];
+    for (let i = 0; i < BOOKERS; i++) {
+        bookers.push(post('/users', { name: `booker ${i}`, email: `booker-${run}-${i}@bench.ru` }).json('id'));
+    }
+    return { items, bookers };
+}
+
+export default function (data) {
+    const booker = data.bookers[Math.floor(Math.random() * data.bookers.length)];
+    const item = data.items[Math.floor(Math.random() * data.items.length)];
+    const headers = { headers: { 'X-Sharer-User-Id': String(booker) } };
+    const dice = Math.random();
+
+    let response;
+    if (dice < 0.45) {
+        response = http.get(`${GATEWAY}/items/${item}`, headers);
+    } else if (dice < 0.9) {
+        response = http.get(`${GATEWAY}/bookings?state=ALL&from=0&size=10`, headers);
+    } else {
+        const start = new Date(Date.now() + (1 + Math.random() * 1000) * 3600 * 1000);
+        const end = new Date(start.getTime() + 3600 * 1000);
+        response = post('/bookings', {
+            itemId: item,
+            start: start.toISOString().substring(0, 19),
+            end: end.toISOString().substring(0, 19),
+        }, booker);
+    }
+    check(response, { 'status 200': r => r.status === 200 });
+}
@@ -0,0 +1,40 @@
+# Заглушка сервера ShareIt для сравнения режимов шлюза: на любой запрос отвечает 200 с коротким JSON
+# через DELAY секунд, не занимая потоков, так что узким местом остается сам шлюз.
+# Запуск: python3 bench/slow-server.py [DELAY] [PORT]
+import asyncio
+import sys
+
+DELAY = float(sys.argv[1]) if len(sys.argv) > 1 else 2.0
+PORT = int(sys.argv[2]) if len(sys.argv) > 2 else 19090
+BODY = b'[{"id":1,"name":"bench","email":"bench@bench.ru"}]'
+RESPONSE = (b'HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: %d\r\n\r\n' % len(BODY)) + BODY
+
+
+async def handle(reader, writer):
+    try:
+        while True:
+            if not await reader.readline():
+                break
+            length = 0
+            while True:
+                header = await reader.readline()
+                if header in (b'\r\n', b''):
+                    break
+                if header.lower().startswith(b'content-length:'):
+                    length = int(header.split(b':')[1])
+            if length:
+                await reader.readexactly(length)
+            await asyncio.sleep(DELAY)
+            writer.write(RESPONSE)
+            await writer.drain()
+    except (ConnectionError, asyncio.IncompleteReadError):
+        pass
+    writer.close()
+
+
+async def main():
+    server = await asyncio.start_server(handle, '127.0.0.1', PORT, backlog=4096)
+    await server.serve_forever()
+
+
+asyncio.run(main())
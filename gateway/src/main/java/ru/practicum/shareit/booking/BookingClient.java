@@ -4,47 +4,68 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingState;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteResilience;
+import ru.practicum.shareit.client.ServerBalancer;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final String ROUTE = "booking";
+
+    private final WebClient streamingWeb;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(RestTemplateBuilder builder, WebClient serverWebClient, WebClient serverStreamingWebClient,
+                         @Value("${shareit-server.client-mode:blocking}") ClientMode mode,
+                         ResponseCache responseCache, ServerBalancer balancer, RouteResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> resilience.requestFactory(ROUTE))
+                        .build(),
+                serverWebClient,
+                mode,
+                responseCache,
+                balancer,
+                resilience.route(ROUTE)
         );
+        this.streamingWeb = serverStreamingWebClient;
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, String cursor) {
+        return get(withCursor("?state={state}&from={from}&size={size}", cursor), userId,
+                listParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> bookItems(long userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> patchBookApproved(long idUser, Boolean approved, long bookingId) {
+    public Mono<ResponseEntity<Object>> patchBookApproved(long idUser, Boolean approved, long bookingId) {
         Map<String, Object> parameters = Map.of(
                 "bookingId", bookingId,
                 "approved", approved
@@ -52,12 +73,40 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, idUser);
     }
 
-    public ResponseEntity<Object> getBookingsOwner(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public Mono<ResponseEntity<Object>> getBookingsOwner(long userId, BookingState state, Integer from, Integer size, String cursor) {
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", cursor), userId,
+                listParameters(state, from, size, cursor));
+    }
+
+    public void exportBookings(long userId, BookingState state, BookingExportFormat format,
+                               HttpServletResponse response) throws IOException {
+        stream(streamingWeb, "/export?state={state}&format={format}", userId, exportParameters(state, format), response);
+    }
+
+    public void exportBookingsOwner(long userId, BookingState state, BookingExportFormat format,
+                                    HttpServletResponse response) throws IOException {
+        stream(streamingWeb, "/owner/export?state={state}&format={format}", userId, exportParameters(state, format), response);
+    }
+
+    private static Map<String, Object> exportParameters(BookingState state, BookingExportFormat format) {
+        return Map.of(
                 "state", state.name(),
-                "from", from,
-                "size", size
+                "format", format.name()
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    }
+
+    private static String withCursor(String path, String cursor) {
+        return cursor == null ? path : path + "&cursor={cursor}";
+    }
+
+    private static Map<String, Object> listParameters(BookingState state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
\ No newline at end of file
@@ -7,12 +7,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -21,49 +28,86 @@ import javax.validation.constraints.PositiveOrZero;
 @Validated
 public class BookingController {
     private static final String SHARER_USER = "X-Sharer-User-Id";
+    private static final int MAX_BATCH_SIZE = 500;
 
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader(SHARER_USER) long userId,
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader(SHARER_USER) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/export")
+    public void exportBookings(@RequestHeader(SHARER_USER) long userId,
+                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                               @RequestParam(name = "format", defaultValue = "ndjson") String formatParam,
+                               HttpServletResponse response) throws IOException {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        BookingExportFormat format = BookingExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown format: " + formatParam));
+        log.info("Export bookings with state {} as {}, userId={}", stateParam, format, userId);
+        bookingClient.exportBookings(userId, state, format, response);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader(SHARER_USER) long userId,
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader(SHARER_USER) long userId,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> bookItems(@RequestHeader(SHARER_USER) long userId,
+                                                  @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                  List<@Valid BookItemRequestDto> requestDtos) {
+        log.info("Creating {} bookings in batch, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(SHARER_USER) long userId,
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(SHARER_USER) long userId,
                                              @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> patchApproved(@RequestHeader(SHARER_USER) long idUser,
+    public Mono<ResponseEntity<Object>> patchApproved(@RequestHeader(SHARER_USER) long idUser,
                                     @RequestParam Boolean approved, @PathVariable long bookingId) {
         log.info("Patch booking {}, userId {}", bookingId, idUser);
         return bookingClient.patchBookApproved(idUser, approved, bookingId);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsOwner(@RequestHeader(SHARER_USER) long userId,
+    public Mono<ResponseEntity<Object>> getBookingsOwner(@RequestHeader(SHARER_USER) long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        BookingState state = BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        log.info("Get booking owner with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+        return bookingClient.getBookingsOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/owner/export")
+    public void exportBookingsOwner(@RequestHeader(SHARER_USER) long userId,
+                                    @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                    @RequestParam(name = "format", defaultValue = "ndjson") String formatParam,
+                                    HttpServletResponse response) throws IOException {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking owner with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsOwner(userId, state, from, size);
+        BookingExportFormat format = BookingExportFormat.from(formatParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown format: " + formatParam));
+        log.info("Export owner bookings with state {} as {}, userId={}", stateParam, format, userId);
+        bookingClient.exportBookingsOwner(userId, state, format, response);
     }
-}
\ No newline at end of file
+}
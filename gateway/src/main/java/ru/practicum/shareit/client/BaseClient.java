@@ -1,98 +1,216 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ответ сервера передаётся клиенту как есть, байтами, без разбора JSON;
+ * отбрасываются только hop-by-hop заголовки.
+ * В режиме BLOCKING запрос к серверу выполняется в потоке Tomcat через RestTemplate,
+ * в режиме REACTIVE — через WebClient, и поток освобождается до получения ответа.
+ * Путь запроса относительный: экземпляр сервера для него выбирает {@link ServerBalancer},
+ * а лимиты и таймаут задаёт {@link ResilientRoute} клиента.
+ */
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
+    private static final int STREAM_PREFETCH = 16;
+    private static final ObjectMapper JSON = new ObjectMapper();
 
-    public BaseClient(RestTemplate rest) {
+    protected final RestTemplate rest;
+    protected final WebClient web;
+    private final ClientMode mode;
+    private final ResponseCache responseCache;
+    private final ServerBalancer balancer;
+    private final ResilientRoute route;
+
+    public BaseClient(RestTemplate rest, WebClient web, ClientMode mode, ResponseCache responseCache,
+                      ServerBalancer balancer, ResilientRoute route) {
         this.rest = rest;
+        this.web = web;
+        this.mode = mode;
+        this.responseCache = responseCache;
+        this.balancer = balancer;
+        this.route = route;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Тело ответа передаётся клиенту частями по мере получения от сервера и не собирается в памяти шлюза.
+     * Тело читает WebClient в любом режиме, а пишет клиенту поток Tomcat с предвыборкой в {@code STREAM_PREFETCH}
+     * частей, так что медленный клиент притормаживает и чтение с сервера. Поток Tomcat занят до конца передачи.
+     * Ответ не кешируется; bulkhead, time limiter и circuit breaker маршрута охватывают получение заголовков.
+     */
+    protected void stream(WebClient streamingWeb, String path, long userId, Map<String, Object> parameters,
+                          HttpServletResponse servletResponse) throws IOException {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters);
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+
+        ResponseEntity<Object> response = route.decorate(balancer.exchange(uri, target -> streamingWeb.get()
+                        .uri(target)
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .retrieve()
+                        .onStatus(status -> true, serverResponse -> Mono.empty())
+                        .toEntityFlux(DataBuffer.class)
+                        .map(serverResponse -> prepareGatewayResponse(serverResponse.getStatusCode(),
+                                serverResponse.getHeaders(), serverResponse.getBody()))))
+                .block();
+
+        servletResponse.setStatus(response.getStatusCodeValue());
+        response.getHeaders().forEach((name, values) -> values.forEach(value -> servletResponse.addHeader(name, value)));
+        OutputStream out = servletResponse.getOutputStream();
+        if (response.getBody() instanceof Flux) {
+            @SuppressWarnings("unchecked")
+            Flux<DataBuffer> body = (Flux<DataBuffer>) response.getBody();
+            try (Stream<DataBuffer> buffers = body.toStream(STREAM_PREFETCH)) {
+                Iterator<DataBuffer> iterator = buffers.iterator();
+                while (iterator.hasNext()) {
+                    DataBuffer buffer = iterator.next();
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        out.write(bytes);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                    out.flush();
+                }
+            }
+        } else if (response.getBody() != null) {
+            servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            JSON.writeValue(out, response.getBody());
+        }
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+
+        if (method == HttpMethod.GET) {
+            return responseCache.get(uri, userId, conditional -> send(method, uri, userId, body, conditional));
+        }
+        return send(method, uri, userId, body, HttpHeaders.EMPTY)
+                .doOnTerminate(() -> responseCache.invalidate(userId));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> send(HttpMethod method, URI uri, Long userId, @Nullable T body, HttpHeaders extraHeaders) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.addAll(extraHeaders);
+        if (mode == ClientMode.REACTIVE) {
+            return route.decorate(balancer.exchange(uri, target -> exchange(method, target, headers, body)));
+        }
+        return route.decorate(balancer.exchange(uri,
+                target -> Mono.fromSupplier(() -> blockingExchange(method, target, headers, body))));
+    }
+
+    private <T> ResponseEntity<Object> blockingExchange(HttpMethod method, URI uri, HttpHeaders headers, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
+            shareitServerResponse = rest.exchange(uri, method, requestEntity, byte[].class);
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
+        }
+        return prepareGatewayResponse(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers, @Nullable T body) {
+        WebClient.RequestBodySpec request = web.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        if (body != null) {
+            request.bodyValue(body);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return request.exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> prepareGatewayResponse(response.getStatusCode(), response.getHeaders(), response.getBody()));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +223,16 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                                                 @Nullable Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
         }
-
-        return responseBuilder.build();
+        return new ResponseEntity<>(body, headers, status);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Защита одного маршрута шлюза: bulkhead ограничивает одновременные запросы, time limiter — их длительность,
+ * circuit breaker считает ошибки соединения, ответы 5xx и медленные вызовы.
+ * Открытый breaker и переполненный bulkhead сразу дают 503, превышение времени — 504.
+ */
+@Getter
+public class ResilientRoute {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+
+    ResilientRoute(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead, TimeLimiter timeLimiter) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeLimiter = timeLimiter;
+    }
+
+    public Mono<ResponseEntity<Object>> decorate(Mono<ResponseEntity<Object>> call) {
+        return call
+                .flatMap(response -> response.getStatusCode().is5xxServerError()
+                        ? Mono.error(new ServerErrorResponse(response))
+                        : Mono.just(response))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(TimeLimiterOperator.of(timeLimiter))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorResume(ServerErrorResponse.class, e -> Mono.just(e.response))
+                .onErrorResume(CallNotPermittedException.class, e -> Mono.just(unavailable(
+                        "Server route " + name + " is temporarily unavailable",
+                        circuitBreaker.getCircuitBreakerConfig().getWaitDurationInOpenState().toSeconds())))
+                .onErrorResume(BulkheadFullException.class, e -> Mono.just(unavailable(
+                        "Too many concurrent requests to server route " + name, 1)))
+                .onErrorResume(TimeoutException.class, e -> Mono.just(error(HttpStatus.GATEWAY_TIMEOUT,
+                        "Server route " + name + " did not answer in " + timeLimiter.getTimeLimiterConfig().getTimeoutDuration())));
+    }
+
+    private static ResponseEntity<Object> unavailable(String message, long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(retryAfterSeconds, 1)))
+                .body(Map.of("error", message));
+    }
+
+    private static ResponseEntity<Object> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+
+    /**
+     * Ответ сервера с кодом 5xx, переданный как ошибка, чтобы его учёл circuit breaker; клиенту уходит как есть.
+     */
+    private static class ServerErrorResponse extends RuntimeException {
+
+        private final ResponseEntity<Object> response;
+
+        ServerErrorResponse(ResponseEntity<Object> response) {
+            super("Server answered " + response.getStatusCode(), null, false, false);
+            this.response = response;
+        }
+    }
+}
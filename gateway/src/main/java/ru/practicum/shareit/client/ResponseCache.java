@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Кэш ответов сервера на GET-запросы по пути, параметрам и X-Sharer-User-Id.
+ * Свежий ответ отдаётся без обращения к серверу, устаревший перепроверяется по ETag.
+ * Изменяющий запрос пользователя сбрасывает все его записи сменой поколения.
+ */
+@Component
+public class ResponseCache {
+
+    private static final long ANONYMOUS = 0L;
+
+    private final ResponseCacheProperties properties;
+    private final Cache<Key, Entry> cache;
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getRetention())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    public Mono<ResponseEntity<Object>> get(URI uri, @Nullable Long userId,
+                                            Function<HttpHeaders, Mono<ResponseEntity<Object>>> exchange) {
+        Duration ttl = ttl(uri.getPath());
+        if (ttl == null) {
+            return exchange.apply(new HttpHeaders());
+        }
+
+        Key key = new Key(uri.toString(), userId);
+        long generation = generation(userId);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.generation != generation) {
+            cached = null;
+        }
+        if (cached != null && cached.isFresh(ttl)) {
+            return Mono.just(cached.response);
+        }
+
+        HttpHeaders conditional = new HttpHeaders();
+        String etag = cached == null ? null : cached.response.getHeaders().getETag();
+        if (etag != null) {
+            conditional.setIfNoneMatch(etag);
+        }
+        Entry previous = cached;
+        return exchange.apply(conditional).map(response -> {
+            if (previous != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                cache.put(key, new Entry(previous.response, generation));
+                return previous.response;
+            }
+            if (response.getStatusCode() == HttpStatus.OK) {
+                cache.put(key, new Entry(response, generation));
+            }
+            return response;
+        });
+    }
+
+    public void invalidate(@Nullable Long userId) {
+        generations.merge(userId == null ? ANONYMOUS : userId, 1L, Long::sum);
+    }
+
+    @Nullable
+    private Duration ttl(String path) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        return properties.getTtl().entrySet().stream()
+                .filter(entry -> pathMatcher.match(entry.getKey(), path))
+                .min((first, second) -> pathMatcher.getPatternComparator(path).compare(first.getKey(), second.getKey()))
+                .map(Map.Entry::getValue)
+                .orElse(null);
+    }
+
+    private long generation(@Nullable Long userId) {
+        return generations.getOrDefault(userId == null ? ANONYMOUS : userId, 0L);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final String uri;
+        private final Long userId;
+    }
+
+    private static class Entry {
+
+        private final ResponseEntity<Object> response;
+        private final long generation;
+        private final long storedAt = System.nanoTime();
+
+        Entry(ResponseEntity<Object> response, long generation) {
+            this.response = response;
+            this.generation = generation;
+        }
+
+        boolean isFresh(Duration ttl) {
+            return System.nanoTime() - storedAt < ttl.toNanos();
+        }
+    }
+}
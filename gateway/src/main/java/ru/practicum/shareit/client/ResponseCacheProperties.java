@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-gateway.cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    /**
+     * Сколько хранится ответ с ETag для перепроверки на сервере после истечения ttl.
+     */
+    private Duration retention = Duration.ofMinutes(10);
+    /**
+     * Время свежести ответа по шаблону пути сервера, например /items/search.
+     * Пути без шаблона не кэшируются.
+     */
+    private Map<String, Duration> ttl = new LinkedHashMap<>();
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Маршруты шлюза к серверу (booking, item, user, request) с отдельными bulkhead, circuit breaker и таймаутом,
+ * настроенными через resilience4j.*.instances.&lt;маршрут&gt;.
+ * Соединения общие, но медленный маршрут упирается в свой bulkhead и не занимает потоки и соединения остальных.
+ */
+@Slf4j
+@Component
+public class RouteResilience {
+
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final TimeLimiterRegistry timeLimiters;
+    private final CloseableHttpClient serverHttpClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ResilientRoute> routes = new ConcurrentHashMap<>();
+
+    public RouteResilience(CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads,
+                           TimeLimiterRegistry timeLimiters, CloseableHttpClient serverHttpClient,
+                           MeterRegistry meterRegistry) {
+        this.circuitBreakers = circuitBreakers;
+        this.bulkheads = bulkheads;
+        this.timeLimiters = timeLimiters;
+        this.serverHttpClient = serverHttpClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ResilientRoute route(String name) {
+        return routes.computeIfAbsent(name, this::createRoute);
+    }
+
+    /**
+     * Фабрика запросов блокирующего режима: общий пул соединений, таймаут чтения маршрута.
+     */
+    public ClientHttpRequestFactory requestFactory(String name) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+        factory.setReadTimeout((int) route(name).getTimeLimiter().getTimeLimiterConfig().getTimeoutDuration().toMillis());
+        return factory;
+    }
+
+    private ResilientRoute createRoute(String name) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Circuit breaker {} moved {}", name, event.getStateTransition());
+            Counter.builder("shareit.gateway.circuit.transitions")
+                    .tag("name", name)
+                    .tag("from", event.getStateTransition().getFromState().name())
+                    .tag("to", event.getStateTransition().getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+        TimeLimiter timeLimiter = timeLimiters.timeLimiter(name);
+        return new ResilientRoute(name, circuitBreaker, bulkheads.bulkhead(name), timeLimiter);
+    }
+}
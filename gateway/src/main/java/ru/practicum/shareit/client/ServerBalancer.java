@@ -0,0 +1,190 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Клиентская балансировка запросов шлюза между экземплярами сервера.
+ * Экземпляр перестаёт получать запросы, если не проходит проверку /actuator/health
+ * или подряд отвечает ошибками соединения и 502/503/504; исключение снимается по таймеру.
+ * Если недоступны все экземпляры, запросы идут на все, чтобы не отказывать заранее.
+ */
+@Slf4j
+@Component
+public class ServerBalancer {
+
+    private final ServerBalancerProperties properties;
+    private final WebClient healthClient;
+    private final List<ServerInstance> instances;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    public ServerBalancer(ServerBalancerProperties properties, WebClient serverWebClient, MeterRegistry meterRegistry) {
+        if (properties.getUrls().isEmpty()) {
+            throw new IllegalStateException("No server instances configured in shareit-server.balancer.urls");
+        }
+        this.properties = properties;
+        this.healthClient = serverWebClient;
+        this.instances = properties.getUrls().stream()
+                .map(ServerInstance::new)
+                .collect(Collectors.toList());
+
+        for (ServerInstance instance : instances) {
+            Gauge.builder("shareit.server.outstanding", instance, i -> i.getOutstanding().get())
+                    .tag("instance", instance.getUrl())
+                    .register(meterRegistry);
+            Gauge.builder("shareit.server.available", instance, i -> i.isAvailable(System.currentTimeMillis()) ? 1 : 0)
+                    .tag("instance", instance.getUrl())
+                    .register(meterRegistry);
+        }
+        log.info("Balancing {} across server instances {}", properties.getStrategy(), properties.getUrls());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.getHealthInterval().isZero()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "server-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHealthInterval().toMillis();
+        healthChecker.scheduleAtFixedRate(this::checkHealth, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    public ServerInstance choose() {
+        if (instances.size() == 1) {
+            return instances.get(0);
+        }
+
+        long now = System.currentTimeMillis();
+        List<ServerInstance> candidates = new ArrayList<>(instances.size());
+        for (ServerInstance instance : instances) {
+            if (instance.isAvailable(now)) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        if (properties.getStrategy() == BalancingStrategy.ROUND_ROBIN) {
+            return candidates.get(start);
+        }
+        ServerInstance best = candidates.get(start);
+        for (int i = 1; i < candidates.size(); i++) {
+            ServerInstance candidate = candidates.get((start + i) % candidates.size());
+            if (candidate.getOutstanding().get() < best.getOutstanding().get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Выбирает экземпляр при подписке, считает его незавершённые запросы и ошибки.
+     */
+    public Mono<ResponseEntity<Object>> exchange(URI uri, Function<URI, Mono<ResponseEntity<Object>>> exchange) {
+        return Mono.defer(() -> {
+            ServerInstance instance = choose();
+            instance.getOutstanding().incrementAndGet();
+            return exchange.apply(instance.resolve(uri))
+                    .doOnNext(response -> {
+                        if (isGatewayFailure(response.getStatusCode())) {
+                            onFailure(instance);
+                        } else {
+                            instance.getConsecutiveErrors().set(0);
+                        }
+                    })
+                    .doOnError(e -> onFailure(instance))
+                    .doFinally(signal -> instance.getOutstanding().decrementAndGet());
+        });
+    }
+
+    private static boolean isGatewayFailure(HttpStatus status) {
+        return status == HttpStatus.BAD_GATEWAY || status == HttpStatus.SERVICE_UNAVAILABLE
+                || status == HttpStatus.GATEWAY_TIMEOUT;
+    }
+
+    private void onFailure(ServerInstance instance) {
+        if (instances.size() == 1 || instance.getConsecutiveErrors().incrementAndGet() < properties.getConsecutiveErrors()) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (instance.isEjected(now)) {
+                return;
+            }
+            long ejected = instances.stream().filter(i -> i.isEjected(now)).count();
+            if ((ejected + 1) * 100 > (long) properties.getMaxEjectionPercent() * instances.size()) {
+                log.warn("Server {} keeps failing, but {} of {} instances are already ejected",
+                        instance.getUrl(), ejected, instances.size());
+                instance.getConsecutiveErrors().set(0);
+                return;
+            }
+            long duration = instance.eject(now, properties.getEjectionTime().toMillis(),
+                    properties.getMaxEjectionTime().toMillis());
+            log.warn("Server {} ejected for {} ms after {} consecutive errors", instance.getUrl(), duration,
+                    properties.getConsecutiveErrors());
+        }
+    }
+
+    private void checkHealth() {
+        for (ServerInstance instance : instances) {
+            healthClient.get()
+                    .uri(instance.resolve(URI.create(properties.getHealthPath())))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .timeout(properties.getHealthTimeout())
+                    .subscribe(response -> onHealthCheck(instance, true), e -> onHealthCheck(instance, false));
+        }
+    }
+
+    private void onHealthCheck(ServerInstance instance, boolean passed) {
+        if (passed) {
+            instance.getFailedChecks().set(0);
+            if (!instance.isHealthy()) {
+                log.info("Server {} is healthy again", instance.getUrl());
+            }
+            instance.setHealthy(true);
+            synchronized (this) {
+                if (!instance.isEjected(System.currentTimeMillis()) && instance.getConsecutiveErrors().get() == 0) {
+                    instance.forgiveEjections();
+                }
+            }
+            return;
+        }
+        if (instance.getFailedChecks().incrementAndGet() >= properties.getUnhealthyThreshold() && instance.isHealthy()) {
+            log.warn("Server {} failed {} health checks in a row", instance.getUrl(), properties.getUnhealthyThreshold());
+            instance.setHealthy(false);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit-server.balancer")
+public class ServerBalancerProperties {
+
+    /**
+     * Адреса экземпляров сервера, например http://server-1:9090,http://server-2:9090.
+     */
+    private List<String> urls = new ArrayList<>();
+    private BalancingStrategy strategy = BalancingStrategy.LEAST_OUTSTANDING;
+    private String healthPath = "/actuator/health";
+    /**
+     * Период активной проверки здоровья; 0 отключает проверку.
+     */
+    private Duration healthInterval = Duration.ofSeconds(5);
+    private Duration healthTimeout = Duration.ofSeconds(1);
+    /**
+     * Сколько проверок подряд должно провалиться, чтобы экземпляр перестал получать запросы.
+     */
+    private int unhealthyThreshold = 2;
+    /**
+     * Сколько ошибок соединения или ответов 502/503/504 подряд приводит к исключению экземпляра.
+     */
+    private int consecutiveErrors = 5;
+    /**
+     * Базовое время исключения; при повторных исключениях растёт кратно их числу до maxEjectionTime.
+     */
+    private Duration ejectionTime = Duration.ofSeconds(30);
+    private Duration maxEjectionTime = Duration.ofMinutes(5);
+    /**
+     * Какую долю экземпляров можно исключить одновременно, в процентах.
+     */
+    private int maxEjectionPercent = 50;
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class ServerInstance {
+
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveErrors = new AtomicInteger();
+    private final AtomicInteger failedChecks = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntil;
+    private int ejections;
+
+    ServerInstance(String url) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public URI resolve(URI relative) {
+        return URI.create(url + relative);
+    }
+
+    boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    boolean isAvailable(long now) {
+        return healthy && !isEjected(now);
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    long eject(long now, long baseMillis, long maxMillis) {
+        ejections++;
+        long duration = Math.min(baseMillis * ejections, maxMillis);
+        ejectedUntil = now + duration;
+        consecutiveErrors.set(0);
+        return duration;
+    }
+
+    void forgiveEjections() {
+        ejections = 0;
+    }
+}
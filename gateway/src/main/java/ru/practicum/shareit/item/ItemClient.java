@@ -4,53 +4,76 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteResilience;
+import ru.practicum.shareit.client.ServerBalancer;
 import ru.practicum.shareit.item.dto.CommentDtoJson;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
+    private static final String ROUTE = "item";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(RestTemplateBuilder builder, WebClient serverWebClient,
+                      @Value("${shareit-server.client-mode:blocking}") ClientMode mode,
+                      ResponseCache responseCache, ServerBalancer balancer, RouteResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> resilience.requestFactory(ROUTE))
+                        .build(),
+                serverWebClient,
+                mode,
+                responseCache,
+                balancer,
+                resilience.route(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> getAllItemsUser(long userId) {
+    public Mono<ResponseEntity<Object>> getAllItemsUser(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> postItem(ItemDto itemDto, long idUser) {
+    public Mono<ResponseEntity<Object>> postItem(ItemDto itemDto, long idUser) {
         return post("", idUser, itemDto);
     }
 
-    public ResponseEntity<Object> patchItem(ItemDto itemDto, long idUser, long idItem) {
+    public Mono<ResponseEntity<Object>> patchItem(ItemDto itemDto, long idUser, long idItem) {
         return patch("/" + idItem, idUser, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> deleteItem(long itemId, long userId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> search(String text) {
-        return get("/search?text=" + text);
+    public Mono<ResponseEntity<Object>> search(String text, Integer from, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        if (size == null) {
+            return get("/search?text={text}&from={from}", null, parameters);
+        }
+        parameters.put("size", size);
+        return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> postComment(CommentDtoJson comment, long idUser, long itemId) {
+    public Mono<ResponseEntity<Object>> postComment(CommentDtoJson comment, long idUser, long itemId) {
         return post("/" + itemId + "/comment",idUser, comment);
     }
 }
@@ -6,10 +6,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDtoJson;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -23,25 +26,25 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsUser(@RequestHeader(SHARER_USER) long userId) {
+    public Mono<ResponseEntity<Object>> getAllItemsUser(@RequestHeader(SHARER_USER) long userId) {
         log.info("Get items user {}", userId);
         return itemClient.getAllItemsUser(userId);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(SHARER_USER) long idUser, @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader(SHARER_USER) long idUser, @PathVariable long itemId) {
         log.info("Get item {} user {}", itemId, idUser);
         return itemClient.getItemById(idUser, itemId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> postItem(@RequestBody @Valid ItemDto itemDto, @RequestHeader(SHARER_USER) int idUser) {
+    public Mono<ResponseEntity<Object>> postItem(@RequestBody @Valid ItemDto itemDto, @RequestHeader(SHARER_USER) int idUser) {
         log.info("Post item {} user {}", itemDto, idUser);
         return itemClient.postItem(itemDto, idUser);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> patchItem(@RequestBody ItemDto itemDto,
+    public Mono<ResponseEntity<Object>> patchItem(@RequestBody ItemDto itemDto,
                                             @RequestHeader(SHARER_USER) long idUser,
                                             @PathVariable long itemId) {
         log.info("Patch item {} user {}", itemId, idUser);
@@ -49,19 +52,21 @@ public class ItemController {
     }
 
     @DeleteMapping("/{itemId}")
-    public ResponseEntity<Object> deleteItem(@PathVariable int itemId, @RequestHeader(SHARER_USER) int userId) {
+    public Mono<ResponseEntity<Object>> deleteItem(@PathVariable int itemId, @RequestHeader(SHARER_USER) int userId) {
         log.info("Delete item {}, user {}", itemId, userId);
         return itemClient.deleteItem(itemId, userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam("text") String text) {
-        log.info("Search text {}", text);
-        return itemClient.search(text);
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam("text") String text,
+                                             @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                             @Positive @RequestParam(name = "size", required = false) Integer size) {
+        log.info("Search text {}, from={}, size={}", text, from, size);
+        return itemClient.search(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> postComment(@RequestBody @Valid CommentDtoJson comment,
+    public Mono<ResponseEntity<Object>> postComment(@RequestBody @Valid CommentDtoJson comment,
                                               @RequestHeader(SHARER_USER) long idUser,
                                               @PathVariable long itemId) {
         log.info("Post comment item {}, user {}", itemId, idUser);
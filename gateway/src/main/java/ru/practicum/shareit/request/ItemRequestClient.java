@@ -4,10 +4,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMode;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RouteResilience;
+import ru.practicum.shareit.client.ServerBalancer;
 import ru.practicum.shareit.request.dto.ItemRequestJson;
 
 import java.util.Map;
@@ -16,26 +21,34 @@ import java.util.Map;
 public class ItemRequestClient extends BaseClient {
 
     private static final String API_PREFIX = "/requests";
+    private static final String ROUTE = "request";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(RestTemplateBuilder builder, WebClient serverWebClient,
+                             @Value("${shareit-server.client-mode:blocking}") ClientMode mode,
+                             ResponseCache responseCache, ServerBalancer balancer, RouteResilience resilience) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(API_PREFIX))
+                        .requestFactory(() -> resilience.requestFactory(ROUTE))
+                        .build(),
+                serverWebClient,
+                mode,
+                responseCache,
+                balancer,
+                resilience.route(ROUTE)
         );
     }
 
-    public ResponseEntity<Object> postRequest(ItemRequestJson requestJson, long userId) {
+    public Mono<ResponseEntity<Object>> postRequest(ItemRequestJson requestJson, long userId) {
         return post("", userId, requestJson);
     }
 
-    public ResponseEntity<Object> getAllRequestByUser(long userId) {
+    public Mono<ResponseEntity<Object>> getAllRequestByUser(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequest(long userId, long from, long size) {
+    public Mono<ResponseEntity<Object>> getAllRequest(long userId, long from, long size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -43,7 +56,7 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(long userId, long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 }
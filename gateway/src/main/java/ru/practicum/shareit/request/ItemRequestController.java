@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestJson;
 
 import javax.validation.Valid;
@@ -24,20 +25,20 @@ public class ItemRequestController {
     private final ItemRequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> postRequest(@RequestHeader(value = SHARER_USER) long idUser,
+    public Mono<ResponseEntity<Object>> postRequest(@RequestHeader(value = SHARER_USER) long idUser,
                                               @RequestBody @Valid ItemRequestJson requestJson) {
         log.info("Post request user {}", idUser);
         return requestClient.postRequest(requestJson, idUser);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllRequestByUser(@RequestHeader(value = SHARER_USER) long idUser) {
+    public Mono<ResponseEntity<Object>> getAllRequestByUser(@RequestHeader(value = SHARER_USER) long idUser) {
         log.info("Get request user {}", idUser);
         return requestClient.getAllRequestByUser(idUser);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequest(@RequestHeader(value = SHARER_USER) long idUser,
+    public Mono<ResponseEntity<Object>> getAllRequest(@RequestHeader(value = SHARER_USER) long idUser,
                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") long from,
                                                 @Positive @RequestParam(name = "size", defaultValue = "10") long size) {
         log.info("Get request user {}, from {}, size {}", idUser, from, size);
@@ -45,7 +46,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader(value = SHARER_USER) long idUser, @PathVariable long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(value = SHARER_USER) long idUser, @PathVariable long requestId) {
         log.info("Get request {} user {}", requestId, idUser);
         return requestClient.getRequestById(idUser, requestId);
     }
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -20,31 +21,31 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
 
     @GetMapping("{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable long userId) {
         log.info("Get user {}", userId);
         return userClient.getUserById(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> postUser(@RequestBody @Valid UserDto user) {
+    public Mono<ResponseEntity<Object>> postUser(@RequestBody @Valid UserDto user) {
         log.info("Post user {}", user);
         return userClient.postUser(user);
     }
 
     @PatchMapping("{id}")
-    public ResponseEntity<Object> updateUser(@RequestBody UserDto user, @PathVariable int id) {
+    public Mono<ResponseEntity<Object>> updateUser(@RequestBody UserDto user, @PathVariable int id) {
         log.info("Patch user {}", id);
         return userClient.updateUser(user, id);
     }
 
     @DeleteMapping("{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable int id) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable int id) {
         log.info("Delete user {}", id);
         return userClient.deleteUser(id);
     }
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResilientRouteTest {
+
+    private CircuitBreaker circuitBreaker;
+    private ResilientRoute route;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    public void before() {
+        circuitBreaker = CircuitBreaker.of("item", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofSeconds(10))
+                .build());
+        Bulkhead bulkhead = Bulkhead.of("item", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TimeLimiter timeLimiter = TimeLimiter.of("item", TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(200))
+                .build());
+        route = new ResilientRoute("item", circuitBreaker, bulkhead, timeLimiter);
+    }
+
+    @Test
+    public void successfulResponsePassesThrough() {
+        ResponseEntity<Object> response = route.decorate(answer(HttpStatus.OK, "[]")).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("[]", response.getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void serverErrorPassesThroughAndCountsAsFailure() {
+        ResponseEntity<Object> response = route.decorate(answer(HttpStatus.INTERNAL_SERVER_ERROR, "boom")).block();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("boom", response.getBody());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    public void openBreakerAnswers503WithoutCallingServer() {
+        route.decorate(answer(HttpStatus.BAD_GATEWAY, "down")).block();
+        route.decorate(answer(HttpStatus.BAD_GATEWAY, "down")).block();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        ResponseEntity<Object> response = route.decorate(answer(HttpStatus.OK, "[]")).block();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("10", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void fullBulkheadAnswers503WithRetryAfter() {
+        Disposable inFlight = route.decorate(Mono.never()).subscribe();
+        try {
+            ResponseEntity<Object> response = route.decorate(answer(HttpStatus.OK, "[]")).block();
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            assertEquals(0, calls.get());
+        } finally {
+            inFlight.dispose();
+        }
+    }
+
+    @Test
+    public void slowServerAnswers504() {
+        ResponseEntity<Object> response = route.decorate(Mono.delay(Duration.ofSeconds(2))
+                .map(tick -> ResponseEntity.ok().build())).block();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertEquals(Map.of("error", "Server route item did not answer in PT0.2S"), response.getBody());
+    }
+
+    private Mono<ResponseEntity<Object>> answer(HttpStatus status, Object body) {
+        return Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(status).body(body);
+        });
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class ServerBalancerTest {
+
+    private static final URI PATH = URI.create("/users");
+    private static final String FIRST = "http://server-1:9090";
+    private static final String SECOND = "http://server-2:9090";
+    private static final String THIRD = "http://server-3:9090";
+
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void roundRobinAlternatesInstances() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND);
+
+        for (int i = 0; i < 4; i++) {
+            balancer.exchange(PATH, answer(Set.of())).block();
+        }
+
+        assertEquals(List.of(FIRST + PATH, SECOND + PATH, FIRST + PATH, SECOND + PATH), calls);
+    }
+
+    @Test
+    public void leastOutstandingSkipsBusyInstance() {
+        ServerBalancer balancer = balancer(BalancingStrategy.LEAST_OUTSTANDING, 50, FIRST, SECOND);
+        balancer.exchange(PATH, uri -> {
+            calls.add(uri.toString());
+            return Mono.never();
+        }).subscribe();
+        String idle = calls.get(0).startsWith(FIRST) ? SECOND : FIRST;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(idle, balancer.choose().getUrl());
+        }
+    }
+
+    @Test
+    public void failingInstanceIsEjected() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND);
+
+        for (int i = 0; i < 4; i++) {
+            balancer.exchange(PATH, answer(Set.of(FIRST))).block();
+        }
+        calls.clear();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(HttpStatus.OK, balancer.exchange(PATH, answer(Set.of(FIRST))).block().getStatusCode());
+        }
+
+        assertEquals(List.of(SECOND + PATH, SECOND + PATH, SECOND + PATH, SECOND + PATH), calls);
+    }
+
+    @Test
+    public void connectionErrorsCountAsFailures() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND);
+        Function<URI, Mono<ResponseEntity<Object>>> refused = uri -> {
+            calls.add(uri.toString());
+            return uri.toString().startsWith(FIRST)
+                    ? Mono.error(new IOException("Connection refused"))
+                    : Mono.just(ResponseEntity.ok().build());
+        };
+
+        for (int i = 0; i < 4; i++) {
+            balancer.exchange(PATH, refused).onErrorResume(IOException.class, e -> Mono.empty()).block();
+        }
+
+        assertEquals(SECOND, balancer.choose().getUrl());
+        assertEquals(SECOND, balancer.choose().getUrl());
+    }
+
+    @Test
+    public void ejectionIsCappedByMaxEjectionPercent() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND, THIRD);
+
+        for (int i = 0; i < 12; i++) {
+            balancer.exchange(PATH, answer(Set.of(FIRST, SECOND, THIRD))).block();
+        }
+
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            chosen.add(balancer.choose().getUrl());
+        }
+        assertEquals(2, chosen.size());
+    }
+
+    @Test
+    public void allInstancesServeWhenNoneAvailable() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND);
+        balancer.choose().setHealthy(false);
+        balancer.choose().setHealthy(false);
+
+        assertEquals(Set.of(FIRST, SECOND), Set.of(balancer.choose().getUrl(), balancer.choose().getUrl()));
+    }
+
+    @Test
+    public void unhealthyInstanceIsSkipped() {
+        ServerBalancer balancer = balancer(BalancingStrategy.ROUND_ROBIN, 50, FIRST, SECOND);
+        ServerInstance first = balancer.choose();
+        first.setHealthy(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertNotSame(first, balancer.choose());
+        }
+    }
+
+    private ServerBalancer balancer(BalancingStrategy strategy, int maxEjectionPercent, String... urls) {
+        ServerBalancerProperties properties = new ServerBalancerProperties();
+        properties.setUrls(List.of(urls));
+        properties.setStrategy(strategy);
+        properties.setConsecutiveErrors(2);
+        properties.setEjectionTime(Duration.ofMinutes(1));
+        properties.setMaxEjectionPercent(maxEjectionPercent);
+        return new ServerBalancer(properties, WebClient.create(), new SimpleMeterRegistry());
+    }
+
+    private Function<URI, Mono<ResponseEntity<Object>>> answer(Set<String> failing) {
+        return uri -> {
+            calls.add(uri.toString());
+            boolean fails = failing.stream().anyMatch(url -> uri.toString().startsWith(url));
+            return Mono.just(ResponseEntity.status(fails ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK).build());
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerInstanceTest {
+
+    @Test
+    public void ejectionTimeGrowsWithRepeatedEjectionsUpToMax() {
+        ServerInstance instance = new ServerInstance("http://server-1:9090");
+
+        assertEquals(30_000, instance.eject(0, 30_000, 75_000));
+        assertEquals(60_000, instance.eject(0, 30_000, 75_000));
+        assertEquals(75_000, instance.eject(0, 30_000, 75_000));
+
+        instance.forgiveEjections();
+        assertEquals(30_000, instance.eject(0, 30_000, 75_000));
+    }
+
+    @Test
+    public void ejectedInstanceReturnsAfterEjectionTime() {
+        ServerInstance instance = new ServerInstance("http://server-1:9090");
+        instance.getConsecutiveErrors().set(5);
+
+        instance.eject(1_000, 30_000, 75_000);
+
+        assertEquals(0, instance.getConsecutiveErrors().get());
+        assertFalse(instance.isAvailable(30_999));
+        assertTrue(instance.isAvailable(31_000));
+    }
+
+    @Test
+    public void resolvesRelativeUriAgainstBaseUrl() {
+        ServerInstance instance = new ServerInstance("http://server-1:9090/");
+
+        assertEquals(URI.create("http://server-1:9090/users?from=0"), instance.resolve(URI.create("/users?from=0")));
+    }
+}
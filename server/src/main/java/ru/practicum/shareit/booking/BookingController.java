@@ -2,11 +2,20 @@ package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.service.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
@@ -16,6 +25,7 @@ import java.util.List;
 public class BookingController {
 
     private static final String SHARER_USER = "X-Sharer-User-Id";
+    private static final String NEXT_CURSOR = "X-Next-Cursor";
 
     private final BookingService bookingService;
 
@@ -26,6 +36,13 @@ public class BookingController {
         return bookingService.postBookings(idUser, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResult> postBookingsBatch(@RequestHeader(SHARER_USER) int idUser,
+                                                      @RequestBody List<BookingDtoJson> bookingDtos) {
+        log.debug("Поступил запрос на пакетное создание {} бронирований.", bookingDtos.size());
+        return bookingService.postBookings(idUser, bookingDtos);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader(SHARER_USER) int idUser, @PathVariable int bookingId) {
         log.debug("Поступил запрос на просмотр бронирования с id {}.", bookingId);
@@ -33,12 +50,25 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingsUser(@RequestParam(defaultValue = "ALL") BookingStatusEnum state,
-                                               @RequestHeader(SHARER_USER) int idUser,
-                                               @RequestParam(defaultValue = "0") int from,
-                                               @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDto>> getAllBookingsUser(@RequestParam(defaultValue = "ALL") BookingStatusEnum state,
+                                                               @RequestHeader(SHARER_USER) int idUser,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String cursor) {
         log.debug("Поступил запрос на просмотр всех бронирований от арендатора со статусом {}", state);
-        return bookingService.getAllBookingsUser(state, idUser, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getAllBookingsUser(state, idUser, from, size));
+        }
+        return toResponse(bookingService.getAllBookingsUser(state, idUser, cursor, size));
+    }
+
+    @GetMapping("/export")
+    public void exportAllBookingsUser(@RequestParam(defaultValue = "ALL") BookingStatusEnum state,
+                                      @RequestHeader(SHARER_USER) int idUser,
+                                      @RequestParam(defaultValue = "NDJSON") BookingExportFormat format,
+                                      HttpServletResponse response) throws IOException {
+        log.debug("Поступил запрос на выгрузку бронирований арендатора со статусом {} в формате {}", state, format);
+        export(format, "bookings", response, out -> bookingService.exportAllBookingsUser(state, idUser, format, out));
     }
 
     @PatchMapping("/{bookingId}")
@@ -49,11 +79,61 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getListAllReservationUser(@RequestHeader(SHARER_USER) int idUser,
-                                                      @RequestParam(defaultValue = "ALL") BookingStatusEnum state,
-                                                      @RequestParam(defaultValue = "0") int from,
-                                                      @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<BookingDto>> getListAllReservationUser(@RequestHeader(SHARER_USER) int idUser,
+                                                                      @RequestParam(defaultValue = "ALL") BookingStatusEnum state,
+                                                                      @RequestParam(defaultValue = "0") int from,
+                                                                      @RequestParam(defaultValue = "10") int size,
+                                                                      @RequestParam(required = false) String cursor) {
         log.debug("Поступил запрос на просмотр всех бронировании от владельца со статусом {}", state);
-        return bookingService.getListAllReservationUser(idUser, state, from, size);
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getListAllReservationUser(idUser, state, from, size));
+        }
+        return toResponse(bookingService.getListAllReservationUser(idUser, state, cursor, size));
+    }
+
+    @GetMapping("/owner/export")
+    public void exportListAllReservationUser(@RequestHeader(SHARER_USER) int idUser,
+                                             @RequestParam(defaultValue = "ALL") BookingStatusEnum state,
+                                             @RequestParam(defaultValue = "NDJSON") BookingExportFormat format,
+                                             HttpServletResponse response) throws IOException {
+        log.debug("Поступил запрос на выгрузку бронирований владельца со статусом {} в формате {}", state, format);
+        export(format, "owner-bookings", response,
+                out -> bookingService.exportListAllReservationUser(idUser, state, format, out));
+    }
+
+    /**
+     * Выгрузка пишется прямо в потоке запроса, а не через асинхронный StreamingResponseBody: после обрыва
+     * соединения клиентом асинхронная обработка ещё раз сбрасывает ответ и запускает диспетчеризацию ошибки,
+     * из-за чего Tomcat возвращает процессор соединения в кэш дважды и ломает следующий запрос.
+     * Если сервис отказал до первой строки, заголовки выгрузки сбрасываются, и ошибку отдает ErrorHandler.
+     */
+    private static void export(BookingExportFormat format, String name, HttpServletResponse response,
+                               Export export) throws IOException {
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build()
+                .toString());
+        try {
+            export.writeTo(response.getOutputStream());
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(OutputStream out) throws IOException;
     }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Этап жизни бронирования во времени, независимо от его статуса.
+ * UPCOMING — до начала, ACTIVE — с начала и до окончания, FINISHED — с момента окончания.
+ */
+public enum BookingPhase {
+    UPCOMING,
+    ACTIVE,
+    FINISHED;
+
+    public static BookingPhase at(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (!now.isBefore(end)) {
+            return FINISHED;
+        }
+        return now.isBefore(start) ? UPCOMING : ACTIVE;
+    }
+
+    /**
+     * Этапы, из которых бронирование может перейти в этот.
+     */
+    public List<BookingPhase> previous() {
+        return Arrays.stream(values())
+                .filter(phase -> phase.ordinal() < ordinal())
+                .collect(Collectors.toList());
+    }
+}
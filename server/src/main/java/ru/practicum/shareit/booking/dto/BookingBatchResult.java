@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат обработки одной записи пакетного создания бронирований.
+ * Индекс совпадает с позицией записи в запросе, статус — с тем, что вернул бы одиночный POST /bookings.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResult {
+
+    private int index;
+    private int status;
+    private BookingDto booking;
+    private String error;
+
+    public static BookingBatchResult created(int index, BookingDto booking) {
+        return new BookingBatchResult(index, 200, booking, null);
+    }
+
+    public static BookingBatchResult failed(int index, int status, String error) {
+        return new BookingBatchResult(index, status, null, error);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class BookingExportRow {
+
+    private final int id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final BookingStatusEnum status;
+    private final int itemId;
+    private final String itemName;
+    private final int bookerId;
+    private final String bookerName;
+}
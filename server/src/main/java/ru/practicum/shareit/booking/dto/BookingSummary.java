@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BookingSummary {
+
+    private BookingDtoResponse lastBooking;
+    private BookingDtoResponse nextBooking;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingSummaryRow {
+
+    Integer getId();
+
+    Integer getItemId();
+
+    Integer getBookerId();
+
+    LocalDateTime getStartBooking();
+
+    LocalDateTime getEndBooking();
+}
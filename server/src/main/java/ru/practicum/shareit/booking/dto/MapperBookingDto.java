@@ -2,9 +2,8 @@ package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.model.Booking;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.item.dto.item.MapperItemDto.toItemDto;
 import static ru.practicum.shareit.user.dto.MapperUserDto.toUserDto;
@@ -24,10 +23,23 @@ public class MapperBookingDto {
         return new BookingDtoResponse(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd());
     }
 
+    public static BookingDtoResponse toBookingDtoResponse(BookingInterval interval) {
+        return new BookingDtoResponse(interval.getId(), interval.getBookerId(), interval.getStart(), interval.getEnd());
+    }
+
+    public static BookingInterval toBookingInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd(), booking.getStatus());
+    }
+
+    /**
+     * Порядок берется из запроса: все списки бронирований сортируются в базе по (start desc, id desc).
+     */
     public static List<BookingDto> mappingListBookingByTime(List<Booking> bookingList) {
-        return bookingList.stream()
-                .map(MapperBookingDto::toBookingDto)
-                .sorted(Comparator.comparing(BookingDto::getStart).reversed())
-                .collect(Collectors.toList());
+        List<BookingDto> bookings = new ArrayList<>(bookingList.size());
+        for (Booking booking : bookingList) {
+            bookings.add(toBookingDto(booking));
+        }
+        return bookings;
     }
 }
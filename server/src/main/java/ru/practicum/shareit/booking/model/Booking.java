@@ -2,6 +2,8 @@ package ru.practicum.shareit.booking.model;
 
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatusEnum;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -12,32 +14,61 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
 @Table(name = "bookings")
 public class Booking {
 
     @Id
     @Column(name = "id")
-    @GenericGenerator(name = "generator", strategy = "increment")
-    @GeneratedValue(generator = "generator")
+    @GenericGenerator(name = "booking_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "bookings_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
+    @GeneratedValue(generator = "booking_generator")
     private int id;
     @Column(name = "start_booking")
     private LocalDateTime start;
     @Column(name = "end_booking")
     private LocalDateTime end;
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "item_id")
     private Item item;
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id")
     private User booker;
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatusEnum status;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", updatable = false)
+    private BookingPhase phase;
+    @Version
+    @Column(name = "version")
+    private long version;
+
+    public Booking(int id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatusEnum status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
 
     public Booking(LocalDateTime start, LocalDateTime end) {
         this.start = start;
         this.end = end;
     }
+
+    /**
+     * Дальше этап меняет только планировщик BookingPhaseScheduler, поэтому колонка не входит в UPDATE сущности.
+     */
+    @PrePersist
+    void initPhase() {
+        if (phase == null) {
+            phase = BookingPhase.at(start, end, LocalDateTime.now());
+        }
+    }
 }
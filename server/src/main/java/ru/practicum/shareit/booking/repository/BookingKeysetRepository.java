@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingExportRow;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BookingKeysetRepository {
+
+    /**
+     * Первые {@code limit} бронирований в порядке (start desc, id desc) без подсчета общего количества.
+     */
+    List<Booking> findPage(Specification<Booking> specification, int limit);
+
+    /**
+     * Все бронирования в порядке (start desc, id desc) серверным курсором по {@code fetchSize} строк.
+     * Строки — проекции, а не сущности, поэтому контекст персистентности не растет. Поток нужно закрыть
+     * внутри транзакции.
+     */
+    Stream<BookingExportRow> streamAll(Specification<Booking> specification, int fetchSize);
+}
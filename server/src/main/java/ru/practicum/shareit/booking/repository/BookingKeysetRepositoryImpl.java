@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingExportRow;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BookingKeysetRepositoryImpl implements BookingKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findPage(Specification<Booking> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> root = query.from(Booking.class);
+        root.fetch("item", JoinType.INNER);
+        root.fetch("booker", JoinType.INNER);
+
+        query.select(root)
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.desc(root.get("start")), builder.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<BookingExportRow> streamAll(Specification<Booking> specification, int fetchSize) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingExportRow> query = builder.createQuery(BookingExportRow.class);
+        Root<Booking> root = query.from(Booking.class);
+        Join<Object, Object> item = root.join("item", JoinType.INNER);
+        Join<Object, Object> booker = root.join("booker", JoinType.INNER);
+
+        query.select(builder.construct(BookingExportRow.class, root.get("id"), root.get("start"), root.get("end"),
+                        root.get("status"), item.get("id"), item.get("name"), booker.get("id"), booker.get("name")))
+                .where(specification.toPredicate(root, query, builder))
+                .orderBy(builder.desc(root.get("start")), builder.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+}
@@ -2,40 +2,91 @@ package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingSummaryRow;
 import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Integer> {
+public interface BookingRepository extends JpaRepository<Booking, Integer>, BookingKeysetRepository {
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :bookerId AND b.status = :status")
     List<Booking> findByStatusAndBookerId(BookingStatusEnum status, int bookerId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :bookerId")
     List<Booking> findByBookerId(int bookerId, Pageable pageable);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId")
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId")
     List<Booking> findAllBookingByOwnerId(int ownerId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId AND b.status = :status")
     List<Booking> findByItem_Owner_IdAndStatus(int ownerId, BookingStatusEnum status, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :bookerId AND b.end < :localDateTime")
     List<Booking> findByEndIsBeforeAndBookerId(LocalDateTime localDateTime, int bookerId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId AND b.end < :localDateTime")
     List<Booking> findByItem_Owner_IdAndEndIsBefore(int ownerId, LocalDateTime localDateTime, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :bookerId AND b.start > :localDateTime")
     List<Booking> findByStartIsAfterAndBookerId(LocalDateTime localDateTime, int bookerId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId AND b.end > :localDateTime")
     List<Booking> findByItem_Owner_IdAndEndIsAfter(int ownerId, LocalDateTime localDateTime, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :ownerId AND b.start < :start AND b.end > :end")
     List<Booking> findByBookerIdAndStartBeforeAndEndAfter(int ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId AND b.start < :start AND b.end > :end")
     List<Booking> findByItem_Owner_IdAndStartBeforeAndEndAfter(int ownerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker WHERE b.booker.id = :bookerId AND b.phase = :phase")
+    List<Booking> findByBookerIdAndPhase(int bookerId, BookingPhase phase, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker WHERE i.owner.id = :ownerId AND b.phase IN :phases")
+    List<Booking> findByItem_Owner_IdAndPhaseIn(int ownerId, Collection<BookingPhase> phases, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end, b.status) " +
+            "from Booking b where b.phase in :phases and b.start > :from and b.start <= :until")
+    List<BookingInterval> findStartingBetween(Collection<BookingPhase> phases, LocalDateTime from, LocalDateTime until);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end, b.status) " +
+            "from Booking b where b.phase in :phases and b.end > :from and b.end <= :until")
+    List<BookingInterval> findEndingBetween(Collection<BookingPhase> phases, LocalDateTime from, LocalDateTime until);
+
+    @Modifying
+    @Query("update Booking b set b.phase = :phase where b.id in :ids and b.phase in :from")
+    int advancePhase(Collection<Integer> ids, BookingPhase phase, Collection<BookingPhase> from);
+
+    @Modifying
+    @Query("update Booking b set b.phase = :phase where b.phase in :from and b.start <= :time")
+    int advancePhaseStartedBefore(LocalDateTime time, BookingPhase phase, Collection<BookingPhase> from);
+
+    @Modifying
+    @Query("update Booking b set b.phase = :phase where b.phase in :from and b.end <= :time")
+    int advancePhaseEndedBefore(LocalDateTime time, BookingPhase phase, Collection<BookingPhase> from);
+
     boolean existsByItem_IdAndStartBeforeAndEndAfter(int itemId, LocalDateTime start, LocalDateTime end);
 
+    boolean existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(int itemId, BookingStatusEnum status,
+                                                                      LocalDateTime end, LocalDateTime start, int bookingId);
+
+    @Query("select b.item.id from Booking b where b.id = :id")
+    Optional<Integer> findItemIdById(int id);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end, b.status) " +
+            "from Booking b where b.status in :statuses")
+    List<BookingInterval> findIntervalsByStatusIn(List<BookingStatusEnum> statuses);
+
     @Query(value = "select b from Booking b where b.item.id = ?1 and b.item.owner.id = ?2 and b.status <> ?3 and b.start < ?4 order by b.start desc")
     List<Booking> findLastBookingByOwnerId(int itemId, int bookerId, BookingStatusEnum statusBooking, LocalDateTime currentTime);
 
@@ -46,4 +97,22 @@ public interface BookingRepository extends JpaRepository<Booking, Integer> {
 
     @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds")
     List<Booking> findBookingsByItemIds(List<Integer> itemIds);
-}
\ No newline at end of file
+
+    /**
+     * Не больше двух строк на предмет: последнее бронирование, начавшееся до :now, и ближайшее после :now.
+     */
+    @Query(value = "select id, itemId, bookerId, startBooking, endBooking from (" +
+            "select b.id as id, b.item_id as itemId, b.user_id as bookerId, " +
+            "b.start_booking as startBooking, b.end_booking as endBooking, " +
+            "row_number() over (partition by b.item_id order by b.start_booking desc, b.id desc) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status <> 'REJECTED' and b.start_booking < :now" +
+            ") last_booking where rn = 1 " +
+            "union all " +
+            "select id, itemId, bookerId, startBooking, endBooking from (" +
+            "select b.id as id, b.item_id as itemId, b.user_id as bookerId, " +
+            "b.start_booking as startBooking, b.end_booking as endBooking, " +
+            "row_number() over (partition by b.item_id order by b.start_booking, b.id) as rn " +
+            "from bookings b where b.item_id in (:itemIds) and b.status <> 'REJECTED' and b.start_booking > :now" +
+            ") next_booking where rn = 1", nativeQuery = true)
+    List<BookingSummaryRow> findLastAndNextByItemIds(Collection<Integer> itemIds, LocalDateTime now);
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+public class BookingSpecifications {
+
+    public static Specification<Booking> byBooker(int bookerId) {
+        return (root, query, builder) -> builder.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    public static Specification<Booking> byOwner(int ownerId) {
+        return (root, query, builder) -> builder.equal(root.get("item").get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<Booking> withStatus(BookingStatusEnum status) {
+        return (root, query, builder) -> builder.equal(root.get("status"), status);
+    }
+
+    public static Specification<Booking> inPhase(BookingPhase... phases) {
+        return (root, query, builder) -> root.get("phase").in(Arrays.asList(phases));
+    }
+
+    public static Specification<Booking> endBefore(LocalDateTime time) {
+        return (root, query, builder) -> builder.lessThan(root.get("end"), time);
+    }
+
+    public static Specification<Booking> endAfter(LocalDateTime time) {
+        return (root, query, builder) -> builder.greaterThan(root.get("end"), time);
+    }
+
+    public static Specification<Booking> startAfter(LocalDateTime time) {
+        return (root, query, builder) -> builder.greaterThan(root.get("start"), time);
+    }
+
+    public static Specification<Booking> current(LocalDateTime time) {
+        return (root, query, builder) -> builder.and(
+                builder.lessThan(root.get("start"), time),
+                builder.greaterThan(root.get("end"), time));
+    }
+
+    /**
+     * Бронирования, которые идут после курсора в порядке (start desc, id desc).
+     */
+    public static Specification<Booking> after(BookingCursor cursor) {
+        return (root, query, builder) -> builder.or(
+                builder.lessThan(root.get("start"), cursor.getStart()),
+                builder.and(
+                        builder.equal(root.get("start"), cursor.getStart()),
+                        builder.lessThan(root.get("id"), cursor.getId())));
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingExportRow;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всей истории бронирований в NDJSON или CSV. Строки читаются серверным курсором в транзакции
+ * только для чтения и сразу пишутся в ответ, поэтому память не зависит от размера истории.
+ */
+@Slf4j
+@Component
+public class BookingExporter {
+
+    private static final String CSV_HEADER = "id,start,end,status,itemId,itemName,bookerId,bookerName";
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public BookingExporter(BookingRepository bookingRepository, PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper, @Value("${shareit.booking.export.fetch-size:500}") int fetchSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public void export(Specification<Booking> specification, BookingExportFormat format,
+                       OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        // заголовки ответа уходят клиенту до первой строки, даже если запрос к базе долгий
+        writer.flush();
+
+        long[] rows = new long[1];
+        // клиент закрыл соединение: дописывать некуда, транзакция только для чтения просто откатывается
+        Boolean completed = transactionTemplate.execute(status -> {
+            try {
+                write(specification, format, writer, rows);
+                writer.flush();
+                return true;
+            } catch (IOException e) {
+                status.setRollbackOnly();
+                log.info("Выгрузка бронирований прервана после {} строк: {}", rows[0], e.getMessage());
+                return false;
+            }
+        });
+        if (Boolean.TRUE.equals(completed)) {
+            log.info("Выгружено {} бронирований в формате {} за {} мс.", rows[0], format,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    private void write(Specification<Booking> specification, BookingExportFormat format, Writer writer,
+                       long[] rows) throws IOException {
+        try (Stream<BookingExportRow> stream = bookingRepository.streamAll(specification, fetchSize)) {
+            Iterator<BookingExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                BookingExportRow row = iterator.next();
+                writer.write(format == BookingExportFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+                rows[0]++;
+            }
+        }
+    }
+
+    private static String toCsv(BookingExportRow row) {
+        return row.getId() + "," + row.getStart() + "," + row.getEnd() + "," + row.getStatus() + ","
+                + row.getItemId() + "," + csvField(row.getItemName()) + ","
+                + row.getBookerId() + "," + csvField(row.getBookerName());
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,269 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static ru.practicum.shareit.booking.dto.MapperBookingDto.toBookingInterval;
+
+/**
+ * Календарь бронирований по каждому предмету, который держится в памяти сервера.
+ * Хранит только бронирования в статусах WAITING и APPROVED, отсортированные по времени начала,
+ * и позволяет без обращения к базе данных проверять пересечения и находить последнее и следующее бронирование.
+ * Закончившиеся бронирования, кроме последнего начавшегося, из календаря выбрасываются: они уже не могут
+ * пересечься с новым бронированием и не станут последним. Проверка интервала, начавшегося раньше выброшенной
+ * границы, идет в базу.
+ * Бронирования, записанные другим экземпляром сервера, сюда не доходят, поэтому при нескольких экземплярах
+ * календарь выключается, и пересечения проверяются в базе.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    private static final List<BookingStatusEnum> INDEXED_STATUSES =
+            List.of(BookingStatusEnum.WAITING, BookingStatusEnum.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final boolean verify;
+    private final Map<Integer, ItemCalendar> calendars = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.index.enabled:true}") boolean enabled,
+                                @Value("${shareit.booking.index.verify:false}") boolean verify) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.verify = verify;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Календарь бронирований выключен, пересечения проверяются в базе.");
+            return;
+        }
+        List<BookingInterval> intervals = bookingRepository.findIntervalsByStatusIn(INDEXED_STATUSES);
+        intervals.forEach(interval -> calendar(interval.getItemId()).put(interval));
+        LocalDateTime now = LocalDateTime.now();
+        int kept = calendars.values().stream()
+                .mapToInt(calendar -> calendar.prune(now))
+                .sum();
+        log.info("Календарь бронирований загружен: {} из {} бронирований по {} предметам.", kept, intervals.size(),
+                calendars.size());
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public boolean hasApprovedOverlap(int itemId, LocalDateTime start, LocalDateTime end, int excludedBookingId) {
+        ItemCalendar calendar = calendars.get(itemId);
+        if (!enabled || calendar != null && !calendar.covers(start)) {
+            return existsApprovedOverlap(itemId, start, end, excludedBookingId);
+        }
+        boolean overlap = calendar != null && calendar.hasApprovedOverlap(start, end, excludedBookingId);
+
+        if (verify) {
+            boolean expected = existsApprovedOverlap(itemId, start, end, excludedBookingId);
+            if (expected != overlap) {
+                log.warn("Календарь бронирований предмета с id {} разошелся с базой данных на интервале {} - {}.",
+                        itemId, start, end);
+                return expected;
+            }
+        }
+        return overlap;
+    }
+
+    private boolean existsApprovedOverlap(int itemId, LocalDateTime start, LocalDateTime end, int excludedBookingId) {
+        return bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(itemId,
+                BookingStatusEnum.APPROVED, end, start, excludedBookingId);
+    }
+
+    public BookingInterval lastBooking(int itemId, LocalDateTime now) {
+        ItemCalendar calendar = calendars.get(itemId);
+        return calendar == null ? null : calendar.last(now);
+    }
+
+    public BookingInterval nextBooking(int itemId, LocalDateTime now) {
+        ItemCalendar calendar = calendars.get(itemId);
+        return calendar == null ? null : calendar.next(now);
+    }
+
+    public void update(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        int itemId = booking.getItem().getId();
+        BookingInterval current = INDEXED_STATUSES.contains(booking.getStatus()) ? toBookingInterval(booking) : null;
+        BookingInterval previous = replace(itemId, booking.getId(), current);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        replace(itemId, booking.getId(), previous);
+                    }
+                }
+            });
+        }
+    }
+
+    private BookingInterval replace(int itemId, int bookingId, BookingInterval interval) {
+        ItemCalendar calendar = calendar(itemId);
+        BookingInterval previous = calendar.remove(bookingId);
+        if (interval != null) {
+            calendar.put(interval);
+        }
+        calendar.prune(LocalDateTime.now());
+        return previous;
+    }
+
+    private ItemCalendar calendar(int itemId) {
+        return calendars.computeIfAbsent(itemId, id -> new ItemCalendar());
+    }
+
+    /**
+     * Подтвержденные бронирования предмета не должны пересекаться друг с другом, поэтому они лежат в отдельном
+     * множестве, где их концы идут в том же порядке, что и начала. Проверка пересечения смотрит только соседа нового
+     * интервала и не зависит от длины истории предмета. Это держит ограничение V7, но только на PostgreSQL:
+     * если пересекающиеся подтвержденные бронирования все же попали в календарь (H2, старые строки при загрузке),
+     * календарь помечается, и проверка перебирает все подтвержденные интервалы, начавшиеся раньше конца нового.
+     */
+    private static class ItemCalendar {
+
+        private static final Comparator<BookingInterval> BY_START = Comparator
+                .comparing(BookingInterval::getStart)
+                .thenComparingInt(BookingInterval::getId);
+
+        private final NavigableSet<BookingInterval> byStart = new TreeSet<>(BY_START);
+        private final NavigableSet<BookingInterval> approved = new TreeSet<>(BY_START);
+        private final Map<Integer, BookingInterval> byId = new HashMap<>();
+        private boolean overlapping;
+        private LocalDateTime prunedUntil;
+
+        synchronized void put(BookingInterval interval) {
+            BookingInterval previous = byId.put(interval.getId(), interval);
+            if (previous != null) {
+                byStart.remove(previous);
+                removeApproved(previous);
+            }
+            byStart.add(interval);
+            if (interval.getStatus() == BookingStatusEnum.APPROVED) {
+                addApproved(interval);
+            }
+        }
+
+        synchronized BookingInterval remove(int bookingId) {
+            BookingInterval previous = byId.remove(bookingId);
+            if (previous != null) {
+                byStart.remove(previous);
+                removeApproved(previous);
+            }
+            return previous;
+        }
+
+        private void addApproved(BookingInterval interval) {
+            if (!overlapping) {
+                BookingInterval lower = approved.lower(interval);
+                BookingInterval higher = approved.higher(interval);
+                BookingInterval other = lower != null && lower.getEnd().isAfter(interval.getStart()) ? lower
+                        : higher != null && higher.getStart().isBefore(interval.getEnd()) ? higher : null;
+                if (other != null) {
+                    overlapping = true;
+                    log.warn("Подтвержденные бронирования {} и {} предмета с id {} пересекаются, проверка пересечений "
+                            + "для предмета перебирает всю историю.", other.getId(), interval.getId(), interval.getItemId());
+                }
+            }
+            approved.add(interval);
+        }
+
+        private void removeApproved(BookingInterval interval) {
+            if (approved.remove(interval) && overlapping) {
+                overlapping = hasOverlappingApproved();
+            }
+        }
+
+        private boolean hasOverlappingApproved() {
+            LocalDateTime maxEnd = null;
+            for (BookingInterval interval : approved) {
+                if (maxEnd != null && maxEnd.isAfter(interval.getStart())) {
+                    return true;
+                }
+                maxEnd = maxEnd == null || interval.getEnd().isAfter(maxEnd) ? interval.getEnd() : maxEnd;
+            }
+            return false;
+        }
+
+        /**
+         * Выбрасывает бронирования, закончившиеся к моменту now, кроме последнего начавшегося, и запоминает
+         * самый поздний конец выброшенных. Возвращает, сколько бронирований осталось.
+         */
+        synchronized int prune(LocalDateTime now) {
+            BookingInterval last = byStart.lower(probe(now, Integer.MIN_VALUE));
+            if (last != null) {
+                Iterator<BookingInterval> iterator = byStart.headSet(last, false).iterator();
+                while (iterator.hasNext()) {
+                    BookingInterval interval = iterator.next();
+                    if (!interval.getEnd().isAfter(now)) {
+                        iterator.remove();
+                        byId.remove(interval.getId());
+                        removeApproved(interval);
+                        if (prunedUntil == null || interval.getEnd().isAfter(prunedUntil)) {
+                            prunedUntil = interval.getEnd();
+                        }
+                    }
+                }
+            }
+            return byId.size();
+        }
+
+        synchronized boolean covers(LocalDateTime start) {
+            return prunedUntil == null || !start.isBefore(prunedUntil);
+        }
+
+        synchronized BookingInterval last(LocalDateTime now) {
+            return byStart.lower(probe(now, Integer.MIN_VALUE));
+        }
+
+        synchronized BookingInterval next(LocalDateTime now) {
+            return byStart.higher(probe(now, Integer.MAX_VALUE));
+        }
+
+        private static BookingInterval probe(LocalDateTime start, int id) {
+            return new BookingInterval(id, 0, 0, start, start, null);
+        }
+
+        synchronized boolean hasApprovedOverlap(LocalDateTime start, LocalDateTime end, int excludedBookingId) {
+            for (BookingInterval interval : approved.headSet(probe(end, Integer.MIN_VALUE), false).descendingSet()) {
+                if (interval.getId() == excludedBookingId) {
+                    continue;
+                }
+                if (interval.getEnd().isAfter(start)) {
+                    return true;
+                }
+                if (!overlapping) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
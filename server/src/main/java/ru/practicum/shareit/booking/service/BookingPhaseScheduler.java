@@ -0,0 +1,265 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+import ru.practicum.shareit.outbox.sink.ListenerOutboxSink;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хранит этап бронирования (UPCOMING, ACTIVE, FINISHED) в колонке phase, чтобы списки PAST/FUTURE/CURRENT
+ * читались по индексу на равенство, а не по диапазонам времени.
+ * Переходы, наступающие в пределах {@code horizon}, ждут своего момента в очереди с задержкой и применяются
+ * пачкой одним UPDATE. Обход раз в половину горизонта догоняет пропущенные переходы (простой сервера,
+ * сбой записи) и ставит в очередь переходы следующего окна.
+ * Новые бронирования приходят из outbox событием {@link BookingStatusEvent} через получателя listener;
+ * если он выключен, переходы ставятся в очередь прямо из запроса после фиксации транзакции.
+ * В режиме time планировщик выключен, и списки строятся по времени, как раньше.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+
+    private static final int MAX_IDS_PER_UPDATE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final BookingStateMode mode;
+    private final Duration horizon;
+    private final boolean fromOutbox;
+    private final DelayQueue<PhaseTransition> transitions = new DelayQueue<>();
+    private volatile LocalDateTime scheduledUntil;
+    private ScheduledExecutorService sweeper;
+    private Thread worker;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository, TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.state.mode:phase}") BookingStateMode mode,
+                                 @Value("${shareit.booking.phase.horizon:10m}") Duration horizon,
+                                 @Value("${shareit.outbox.sinks:listener}") Set<String> outboxSinks) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.mode = mode;
+        this.horizon = horizon;
+        this.fromOutbox = outboxSinks.contains(ListenerOutboxSink.NAME);
+        meterRegistry.gauge("shareit.booking.phase.pending", transitions, DelayQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        log.info("Этапы бронирований: режим {}, горизонт планирования {}, новые бронирования из {}.", mode, horizon,
+                fromOutbox ? "outbox" : "запроса");
+        if (!enabled()) {
+            return;
+        }
+        sweep();
+
+        worker = new Thread(this::work, "booking-phase");
+        worker.setDaemon(true);
+        worker.start();
+
+        long period = Math.max(1, horizon.toMillis() / 2);
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-phase-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public boolean enabled() {
+        return mode == BookingStateMode.PHASE;
+    }
+
+    /**
+     * Ставит в очередь переходы нового бронирования, если они наступят до следующего обхода.
+     * Очередь пополняется после фиксации транзакции: обход, прочитавший окно до фиксации, бронирование бы не увидел.
+     * Когда включен получатель outbox listener, переходы приходят событием, и вызов ничего не делает.
+     */
+    public void schedule(Collection<Booking> bookings) {
+        if (!enabled() || fromOutbox || bookings.isEmpty()) {
+            return;
+        }
+        List<BookingInterval> intervals = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            intervals.add(new BookingInterval(booking.getId(), 0, 0, booking.getStart(), booking.getEnd(),
+                    booking.getStatus()));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(intervals, LocalDateTime.now().plus(horizon));
+                }
+            });
+        } else {
+            enqueue(intervals, LocalDateTime.now().plus(horizon));
+        }
+    }
+
+    /**
+     * Ставит в очередь переходы бронирования, созданного в любом экземпляре сервера. Событие приходит уже
+     * после фиксации, а переход, время которого прошло за время доставки, применяется сразу.
+     * События без интервала записаны до его появления в outbox, их переходы догонит обход.
+     */
+    @EventListener
+    public void onStatusChange(BookingStatusEvent event) {
+        if (!enabled() || !fromOutbox || event.getStatus() != BookingStatusEnum.WAITING || event.getStart() == null) {
+            return;
+        }
+        enqueue(List.of(new BookingInterval(event.getBookingId(), 0, 0, event.getStart(), event.getEnd(),
+                event.getStatus())), LocalDateTime.now().plus(horizon));
+    }
+
+    void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime until = now.plus(horizon);
+            LocalDateTime from = scheduledUntil == null ? now : scheduledUntil;
+
+            List<BookingInterval> upcoming = transactionTemplate.execute(status -> {
+                int finished = bookingRepository.advancePhaseEndedBefore(now, BookingPhase.FINISHED,
+                        BookingPhase.FINISHED.previous());
+                int started = bookingRepository.advancePhaseStartedBefore(now, BookingPhase.ACTIVE,
+                        BookingPhase.ACTIVE.previous());
+                count(BookingPhase.FINISHED, "sweep", finished);
+                count(BookingPhase.ACTIVE, "sweep", started);
+                if (finished + started > 0) {
+                    log.info("Обход этапов: догнали {} начавшихся и {} закончившихся бронирований.", started, finished);
+                }
+
+                List<BookingInterval> window = new ArrayList<>(bookingRepository.findStartingBetween(
+                        BookingPhase.ACTIVE.previous(), from, until));
+                window.addAll(bookingRepository.findEndingBetween(BookingPhase.FINISHED.previous(), from, until));
+                return window;
+            });
+            enqueue(upcoming, until);
+            scheduledUntil = until;
+            log.debug("Обход этапов: в очереди {} переходов до {}.", transitions.size(), until);
+        } catch (RuntimeException e) {
+            log.warn("Обход этапов бронирований прерван: {}", e.getMessage());
+        }
+    }
+
+    private void enqueue(Collection<BookingInterval> intervals, LocalDateTime until) {
+        LocalDateTime now = LocalDateTime.now();
+        long nanos = System.nanoTime();
+        for (BookingInterval interval : intervals) {
+            if (!interval.getStart().isAfter(until)) {
+                transitions.add(new PhaseTransition(interval.getId(), BookingPhase.ACTIVE,
+                        nanos + Duration.between(now, interval.getStart()).toNanos()));
+            }
+            if (!interval.getEnd().isAfter(until)) {
+                transitions.add(new PhaseTransition(interval.getId(), BookingPhase.FINISHED,
+                        nanos + Duration.between(now, interval.getEnd()).toNanos()));
+            }
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PhaseTransition> due = new ArrayList<>();
+            try {
+                due.add(transitions.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            transitions.drainTo(due);
+            try {
+                apply(due);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось сменить этап {} бронирований, их догонит обход: {}", due.size(), e.getMessage());
+            }
+        }
+    }
+
+    private void apply(List<PhaseTransition> due) {
+        long nanos = System.nanoTime();
+        Map<BookingPhase, List<Integer>> byPhase = new EnumMap<>(BookingPhase.class);
+        for (PhaseTransition transition : due) {
+            byPhase.computeIfAbsent(transition.phase, phase -> new ArrayList<>()).add(transition.bookingId);
+            meterRegistry.timer("shareit.booking.phase.lag")
+                    .record(Math.max(0, nanos - transition.dueNanos), TimeUnit.NANOSECONDS);
+        }
+
+        byPhase.forEach((phase, ids) -> {
+            for (int i = 0; i < ids.size(); i += MAX_IDS_PER_UPDATE) {
+                List<Integer> chunk = ids.subList(i, Math.min(ids.size(), i + MAX_IDS_PER_UPDATE));
+                Integer updated = transactionTemplate.execute(status ->
+                        bookingRepository.advancePhase(chunk, phase, phase.previous()));
+                count(phase, "scheduled", updated == null ? 0 : updated);
+            }
+            log.debug("Этап {}: {} бронирований.", phase, ids.size());
+        });
+    }
+
+    private void count(BookingPhase phase, String source, int amount) {
+        meterRegistry.counter("shareit.booking.phase.transitions", "phase", phase.name(), "source", source)
+                .increment(amount);
+    }
+
+    private static class PhaseTransition implements Delayed {
+
+        private final int bookingId;
+        private final BookingPhase phase;
+        private final long dueNanos;
+
+        PhaseTransition(int bookingId, BookingPhase phase, long dueNanos) {
+            this.bookingId = bookingId;
+            this.phase = phase;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueNanos, ((PhaseTransition) other).dueNanos);
+        }
+    }
+}
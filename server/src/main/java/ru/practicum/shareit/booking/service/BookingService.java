@@ -1,20 +1,36 @@
 package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.dto.BookingPage;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BookingService {
 
     BookingDto postBookings(int idUser, BookingDtoJson bookingDto);
 
+    List<BookingBatchResult> postBookings(int idUser, List<BookingDtoJson> bookingDtos);
+
     BookingDto getBookingById(int idUser, int bookingId);
 
     List<BookingDto> getAllBookingsUser(BookingStatusEnum state, int idUser, int from, int size);
 
+    BookingPage getAllBookingsUser(BookingStatusEnum state, int idUser, String cursor, int size);
+
     BookingDto patchApproved(Boolean approved, Integer bookingId, Integer idUser);
 
     List<BookingDto> getListAllReservationUser(int idUser, BookingStatusEnum state, int from, int size);
+
+    BookingPage getListAllReservationUser(int idUser, BookingStatusEnum state, String cursor, int size);
+
+    void exportAllBookingsUser(BookingStatusEnum state, int idUser, BookingExportFormat format,
+                               OutputStream out) throws IOException;
+
+    void exportListAllReservationUser(int idUser, BookingStatusEnum state, BookingExportFormat format,
+                                      OutputStream out) throws IOException;
 }
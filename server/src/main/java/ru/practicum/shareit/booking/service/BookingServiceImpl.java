@@ -2,28 +2,58 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingPhase;
 import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.BookingOutbox;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
 
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.dto.MapperBookingDto.mappingListBookingByTime;
 import static ru.practicum.shareit.booking.dto.MapperBookingDto.toBooking;
 import static ru.practicum.shareit.booking.dto.MapperBookingDto.toBookingDto;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byBooker;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byOwner;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.current;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.endAfter;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.endBefore;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.inPhase;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.startAfter;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.withStatus;
 import static ru.practicum.shareit.util.Constant.LOG_LIST_STATUS;
 import static ru.practicum.shareit.util.Constant.NOT_FOUND_BOOKING;
 import static ru.practicum.shareit.util.Constant.NOT_FOUND_USER;
@@ -34,40 +64,99 @@ import static ru.practicum.shareit.util.Validation.validate;
 @AllArgsConstructor
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_APPROVAL_ATTEMPTS = 3;
+    private static final long APPROVAL_BACKOFF_MILLIS = 20;
+    private static final Sort BY_START_DESC = Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id"));
+
     private BookingRepository bookingRepository;
     private ItemRepository itemRepository;
     private UserRepository userRepository;
+    private BookingIntervalIndex bookingIndex;
+    private UserExistenceService userExistence;
+    private TransactionTemplate transactionTemplate;
+    private ItemLockTable itemLocks;
+    private BookingOutbox bookingOutbox;
+    private BookingPhaseScheduler phases;
+    private BookingExporter exporter;
 
     @Override
-    @Transactional
     public BookingDto postBookings(int idUser, BookingDtoJson bookingDto) {
         log.debug("Обрабатываем запрос на добавление бронирования на предмет с id {}.", bookingDto.getItemId());
 
-        validate(bookingDto);
-        Booking book = toBooking(bookingDto);
+        return itemLocks.withItem(bookingDto.getItemId(),
+                () -> transactionTemplate.execute(status -> createBooking(idUser, bookingDto)));
+    }
 
-        Item item = itemRepository.findById(bookingDto.getItemId())
-                .orElseThrow(() -> {
-                    log.debug("Пользователь с id {} запросил аренду несуществующего предмета с id {}.", idUser, bookingDto.getItemId());
-                    return new ItemNotFoundException(String.format("Предмета с id %d не существует", bookingDto.getItemId()));
-                });
+    private BookingDto createBooking(int idUser, BookingDtoJson bookingDto) {
+        Item item = itemRepository.findById(bookingDto.getItemId()).orElse(null);
+        Booking book = checkBooking(idUser, bookingDto, item);
 
-        if (item.getOwner().getId() == idUser) {
-            log.debug("Пользователь с id {} пытается создать бронирование на свой предмет с id {}.", idUser, item.getId());
-            throw new BookingNotFoundException("Вы не можете арендовать свой предмет");
-        }
+        User user = exceptionIfNotUser(idUser);
 
-        if (!item.getIsAvailable()) {
-            log.debug("Предмет с id {} не доступен для аренды", item.getId());
-            throw new BookingBadRequest(String.format("%s не доступен для аренды.", item.getName()));
+        book.setBooker(user);
+        book.setStatus(BookingStatusEnum.WAITING);
+        Booking saved = bookingRepository.save(book);
+        bookingIndex.update(saved);
+        bookingOutbox.record(saved);
+        phases.schedule(List.of(saved));
+        return toBookingDto(saved);
+    }
+
+    @Override
+    public List<BookingBatchResult> postBookings(int idUser, List<BookingDtoJson> bookingDtos) {
+        log.debug("Обрабатываем запрос на пакетное создание {} бронирований.", bookingDtos == null ? 0 : bookingDtos.size());
+
+        if (bookingDtos == null || bookingDtos.isEmpty() || bookingDtos.size() > MAX_BATCH_SIZE) {
+            log.warn("Недопустимый размер пакета бронирований.");
+            throw new ValidationException(String.format("В пакете должно быть от 1 до %d бронирований.", MAX_BATCH_SIZE));
         }
-        book.setItem(item);
 
+        Set<Integer> itemIds = bookingDtos.stream()
+                .map(BookingDtoJson::getItemId)
+                .collect(Collectors.toSet());
+        return itemLocks.withItems(itemIds,
+                () -> transactionTemplate.execute(status -> createBookings(idUser, bookingDtos, itemIds)));
+    }
+
+    private List<BookingBatchResult> createBookings(int idUser, List<BookingDtoJson> bookingDtos, Set<Integer> itemIds) {
         User user = exceptionIfNotUser(idUser);
+        Map<Integer, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        BookingBatchResult[] results = new BookingBatchResult[bookingDtos.size()];
+        Booking[] prepared = new Booking[bookingDtos.size()];
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDtoJson bookingDto = bookingDtos.get(i);
+            try {
+                prepared[i] = checkBooking(idUser, bookingDto, items.get(bookingDto.getItemId()));
+            } catch (ItemNotFoundException | BookingNotFoundException e) {
+                results[i] = BookingBatchResult.failed(i, HttpStatus.NOT_FOUND.value(), e.getMessage());
+            } catch (ValidationException | BookingBadRequest e) {
+                results[i] = BookingBatchResult.failed(i, HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            }
+        }
 
-        book.setBooker(user);
-        book.setStatus(BookingStatusEnum.WAITING);
-        return toBookingDto(bookingRepository.save(book));
+        List<Booking> books = new ArrayList<>(bookingDtos.size());
+        for (Booking book : prepared) {
+            if (book != null) {
+                book.setBooker(user);
+                book.setStatus(BookingStatusEnum.WAITING);
+                books.add(book);
+            }
+        }
+        bookingRepository.saveAll(books);
+        bookingOutbox.recordAll(books);
+        phases.schedule(books);
+
+        for (int i = 0; i < prepared.length; i++) {
+            if (prepared[i] != null) {
+                bookingIndex.update(prepared[i]);
+                results[i] = BookingBatchResult.created(i, toBookingDto(prepared[i]));
+            }
+        }
+        log.info("Пакет бронирований обработан: создано {} из {}.", books.size(), bookingDtos.size());
+        return Arrays.asList(results);
     }
 
     @Override
@@ -96,11 +185,10 @@ public class BookingServiceImpl implements BookingService {
 
         incorrectPageParameters(from, size);
 
-        Sort sort = Sort.by(Sort.Order.desc("start"));
-        Pageable pageable = PageRequest.of(from / size, size, sort);
+        Pageable pageable = PageRequest.of(from / size, size, BY_START_DESC);
         LocalDateTime localDateTime = LocalDateTime.now();
 
-        exceptionIfNotUser(idUser);
+        userExistence.requireExists(idUser);
 
         switch (state) {
             case ALL:
@@ -109,15 +197,21 @@ public class BookingServiceImpl implements BookingService {
                 return mappingListBookingByTime(bookings);
             case PAST:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                List<Booking> bookingsPast = bookingRepository.findByEndIsBeforeAndBookerId(localDateTime, idUser, pageable);
+                List<Booking> bookingsPast = phases.enabled()
+                        ? bookingRepository.findByBookerIdAndPhase(idUser, BookingPhase.FINISHED, pageable)
+                        : bookingRepository.findByEndIsBeforeAndBookerId(localDateTime, idUser, pageable);
                 return mappingListBookingByTime(bookingsPast);
             case FUTURE:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                List<Booking> bookingsFuture = bookingRepository.findByStartIsAfterAndBookerId(localDateTime, idUser, pageable);
+                List<Booking> bookingsFuture = phases.enabled()
+                        ? bookingRepository.findByBookerIdAndPhase(idUser, BookingPhase.UPCOMING, pageable)
+                        : bookingRepository.findByStartIsAfterAndBookerId(localDateTime, idUser, pageable);
                 return mappingListBookingByTime(bookingsFuture);
             case CURRENT:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                List<Booking> bookingsCurrent = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(idUser, localDateTime, localDateTime, pageable);
+                List<Booking> bookingsCurrent = phases.enabled()
+                        ? bookingRepository.findByBookerIdAndPhase(idUser, BookingPhase.ACTIVE, pageable)
+                        : bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(idUser, localDateTime, localDateTime, pageable);
                 return mappingListBookingByTime(bookingsCurrent);
             case WAITING:
             case REJECTED:
@@ -131,9 +225,51 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional
+    public BookingPage getAllBookingsUser(BookingStatusEnum state, int idUser, String cursor, int size) {
+        log.debug("Обрабатываем запрос на просмотр бронирований от арендатора со статусом {} по курсору", state);
+
+        incorrectPageParameters(0, size);
+        userExistence.requireExists(idUser);
+
+        log.debug(LOG_LIST_STATUS.getValue(), state);
+        return findPage(bookerSpecification(state, idUser), cursor, size);
+    }
+
+    /**
+     * Внутри экземпляра сервера подтверждения одного предмета выполняются по очереди под блокировкой предмета.
+     * Каждая попытка выполняется в отдельной транзакции. Конфликт версий бронирования или предмета с другим
+     * экземпляром, а в PostgreSQL и ограничение на пересечение подтвержденных бронирований, приводят к повтору,
+     * который уже видит результат конкурирующей транзакции. Если попытки закончились — 409.
+     */
+    @Override
     public BookingDto patchApproved(Boolean approved, Integer bookingId, Integer idUser) {
         log.debug("Обрабатываем запрос на одобрение(отклонение) бронирования с id {}", bookingId);
 
+        int itemId = bookingRepository.findItemIdById(bookingId)
+                .orElseThrow(() -> {
+                    log.warn(NOT_FOUND_BOOKING.getValue(), bookingId);
+                    return new BookingNotFoundException(String.format("Бронирования с id %d не существует.", bookingId));
+                });
+        return itemLocks.withItem(itemId, () -> approveWithRetry(approved, bookingId, idUser));
+    }
+
+    private BookingDto approveWithRetry(Boolean approved, Integer bookingId, Integer idUser) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> approve(approved, bookingId, idUser));
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_APPROVAL_ATTEMPTS) {
+                    log.warn("Бронирование с id {} не удалось обработать за {} попыток: {}", bookingId, attempt, e.getMessage());
+                    throw new BookingConflictException(String.format(
+                            "Бронирование с id %d одновременно изменяется другим запросом, повторите попытку.", bookingId));
+                }
+                log.debug("Конфликт при обработке бронирования с id {}, попытка {}.", bookingId, attempt);
+                backOff(attempt, bookingId);
+            }
+        }
+    }
+
+    private BookingDto approve(Boolean approved, Integer bookingId, Integer idUser) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> {
                     log.warn(NOT_FOUND_BOOKING.getValue(), bookingId);
@@ -148,7 +284,11 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingBadRequest("Подтверждение уже получено.");
         }
 
-        if (bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(item.getId(), booking.getStart(), booking.getEnd())) {
+        if (approved) {
+            itemRepository.lockForApproval(item);
+        }
+
+        if (bookingIndex.hasApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd(), booking.getId())) {
             log.debug("На данное время {} предмет c id {} уже забронирован", booking.getStart(), item.getId());
             throw new BookingNotFoundException("На данное время предмет забронирован");
         }
@@ -161,12 +301,14 @@ public class BookingServiceImpl implements BookingService {
         if (approved) {
             booking.setStatus(BookingStatusEnum.APPROVED);
             log.info("Бронирование с id {} подтверждено.", bookingId);
-            return toBookingDto(bookingRepository.save(booking));
         } else {
             booking.setStatus(BookingStatusEnum.REJECTED);
             log.info("Бронирование с id {} отклонено.", bookingId);
-            return toBookingDto(bookingRepository.save(booking));
         }
+        Booking saved = bookingRepository.save(booking);
+        bookingIndex.update(saved);
+        bookingOutbox.record(saved);
+        return toBookingDto(saved);
     }
 
     @Override
@@ -176,11 +318,10 @@ public class BookingServiceImpl implements BookingService {
 
         incorrectPageParameters(from, size);
 
-        Sort sort = Sort.by(Sort.Order.desc("start"));
-        Pageable pageable = PageRequest.of(from / size, size, sort);
+        Pageable pageable = PageRequest.of(from / size, size, BY_START_DESC);
         LocalDateTime localDateTime = LocalDateTime.now();
 
-        exceptionIfNotUser(idUser);
+        userExistence.requireExists(idUser);
 
         switch (state) {
             case ALL:
@@ -188,13 +329,19 @@ public class BookingServiceImpl implements BookingService {
                 return mappingListBookingByTime(bookingRepository.findAllBookingByOwnerId(idUser, pageable));
             case PAST:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                return mappingListBookingByTime(bookingRepository.findByItem_Owner_IdAndEndIsBefore(idUser, localDateTime, pageable));
+                return mappingListBookingByTime(phases.enabled()
+                        ? bookingRepository.findByItem_Owner_IdAndPhaseIn(idUser, EnumSet.of(BookingPhase.FINISHED), pageable)
+                        : bookingRepository.findByItem_Owner_IdAndEndIsBefore(idUser, localDateTime, pageable));
             case FUTURE:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                return mappingListBookingByTime(bookingRepository.findByItem_Owner_IdAndEndIsAfter(idUser, localDateTime, pageable));
+                return mappingListBookingByTime(phases.enabled()
+                        ? bookingRepository.findByItem_Owner_IdAndPhaseIn(idUser, EnumSet.of(BookingPhase.UPCOMING, BookingPhase.ACTIVE), pageable)
+                        : bookingRepository.findByItem_Owner_IdAndEndIsAfter(idUser, localDateTime, pageable));
             case CURRENT:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
-                return mappingListBookingByTime(bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(idUser, localDateTime, localDateTime, pageable));
+                return mappingListBookingByTime(phases.enabled()
+                        ? bookingRepository.findByItem_Owner_IdAndPhaseIn(idUser, EnumSet.of(BookingPhase.ACTIVE), pageable)
+                        : bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(idUser, localDateTime, localDateTime, pageable));
             case WAITING:
             case REJECTED:
                 log.debug(LOG_LIST_STATUS.getValue(), state);
@@ -205,6 +352,130 @@ public class BookingServiceImpl implements BookingService {
         throw new BookingBadRequest(String.format("Unknown state: %s", state));
     }
 
+    @Override
+    @Transactional
+    public BookingPage getListAllReservationUser(int idUser, BookingStatusEnum state, String cursor, int size) {
+        log.debug("Обрабатываем запрос на просмотр бронирований от владельца со статусом {} по курсору", state);
+
+        incorrectPageParameters(0, size);
+        userExistence.requireExists(idUser);
+
+        log.debug(LOG_LIST_STATUS.getValue(), state);
+        return findPage(ownerSpecification(state, idUser), cursor, size);
+    }
+
+    @Override
+    public void exportAllBookingsUser(BookingStatusEnum state, int idUser, BookingExportFormat format,
+                                      OutputStream out) throws IOException {
+        log.debug("Обрабатываем запрос на выгрузку бронирований арендатора со статусом {} в формате {}", state, format);
+
+        userExistence.requireExists(idUser);
+        exporter.export(bookerSpecification(state, idUser), format, out);
+    }
+
+    @Override
+    public void exportListAllReservationUser(int idUser, BookingStatusEnum state, BookingExportFormat format,
+                                             OutputStream out) throws IOException {
+        log.debug("Обрабатываем запрос на выгрузку бронирований владельца со статусом {} в формате {}", state, format);
+
+        userExistence.requireExists(idUser);
+        exporter.export(ownerSpecification(state, idUser), format, out);
+    }
+
+    private Specification<Booking> bookerSpecification(BookingStatusEnum state, int idUser) {
+        LocalDateTime localDateTime = LocalDateTime.now();
+        Specification<Booking> specification = byBooker(idUser);
+        switch (state) {
+            case ALL:
+                return specification;
+            case PAST:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.FINISHED) : endBefore(localDateTime));
+            case FUTURE:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.UPCOMING) : startAfter(localDateTime));
+            case CURRENT:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.ACTIVE) : current(localDateTime));
+            case WAITING:
+            case REJECTED:
+                return specification.and(withStatus(state));
+            default:
+                log.warn("Не верный статус бронирования {}", state);
+                throw new BookingBadRequest(String.format("Unknown state: %s", state));
+        }
+    }
+
+    private Specification<Booking> ownerSpecification(BookingStatusEnum state, int idUser) {
+        LocalDateTime localDateTime = LocalDateTime.now();
+        Specification<Booking> specification = byOwner(idUser);
+        switch (state) {
+            case ALL:
+                return specification;
+            case PAST:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.FINISHED) : endBefore(localDateTime));
+            case FUTURE:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.UPCOMING, BookingPhase.ACTIVE) : endAfter(localDateTime));
+            case CURRENT:
+                return specification.and(phases.enabled()
+                        ? inPhase(BookingPhase.ACTIVE) : current(localDateTime));
+            case WAITING:
+            case REJECTED:
+                return specification.and(withStatus(state));
+            default:
+                log.warn("Не верный статус бронирования {}", state);
+                throw new BookingBadRequest(String.format("Unknown state: %s", state));
+        }
+    }
+
+    private BookingPage findPage(Specification<Booking> specification, String cursor, int size) {
+        if (cursor != null && !cursor.isBlank()) {
+            specification = specification.and(after(BookingCursor.decode(cursor)));
+        }
+
+        List<BookingDto> bookings = mappingListBookingByTime(bookingRepository.findPage(specification, size));
+        String nextCursor = bookings.size() < size ? null : BookingCursor.of(bookings.get(bookings.size() - 1)).encode();
+        return new BookingPage(bookings, nextCursor);
+    }
+
+    private Booking checkBooking(int idUser, BookingDtoJson bookingDto, Item item) {
+        validate(bookingDto);
+        Booking book = toBooking(bookingDto);
+
+        if (item == null) {
+            log.debug("Пользователь с id {} запросил аренду несуществующего предмета с id {}.", idUser, bookingDto.getItemId());
+            throw new ItemNotFoundException(String.format("Предмета с id %d не существует", bookingDto.getItemId()));
+        }
+
+        if (item.getOwner().getId() == idUser) {
+            log.debug("Пользователь с id {} пытается создать бронирование на свой предмет с id {}.", idUser, item.getId());
+            throw new BookingNotFoundException("Вы не можете арендовать свой предмет");
+        }
+
+        if (!item.getIsAvailable()) {
+            log.debug("Предмет с id {} не доступен для аренды", item.getId());
+            throw new BookingBadRequest(String.format("%s не доступен для аренды.", item.getName()));
+        }
+        book.setItem(item);
+
+        if (bookingIndex.hasApprovedOverlap(item.getId(), book.getStart(), book.getEnd(), book.getId())) {
+            log.debug("На данное время {} предмет c id {} уже забронирован", book.getStart(), item.getId());
+            throw new BookingNotFoundException("На данное время предмет забронирован");
+        }
+        return book;
+    }
+
+    private void backOff(int attempt, int bookingId) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, APPROVAL_BACKOFF_MILLIS * attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException(String.format("Обработка бронирования с id %d прервана.", bookingId));
+        }
+    }
+
     private User exceptionIfNotUser(int idUser) {
         return userRepository.findById(idUser)
                 .orElseThrow(() -> {
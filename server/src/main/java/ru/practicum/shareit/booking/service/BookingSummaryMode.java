@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.service;
+
+public enum BookingSummaryMode {
+    INDEX,
+    QUERY
+}
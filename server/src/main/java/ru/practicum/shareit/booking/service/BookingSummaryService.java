@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingSummary;
+import ru.practicum.shareit.booking.dto.BookingSummaryRow;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ru.practicum.shareit.booking.dto.MapperBookingDto.toBookingDtoResponse;
+
+/**
+ * Последнее и следующее не отклоненное бронирование по каждому предмету.
+ * В режиме INDEX читается из календаря бронирований в памяти, в режиме QUERY - одним запросом,
+ * который возвращает не больше двух строк на предмет. Если календарь выключен, режим INDEX тоже идет запросом.
+ */
+@Slf4j
+@Component
+public class BookingSummaryService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingIntervalIndex bookingIndex;
+    private final BookingSummaryMode mode;
+
+    public BookingSummaryService(BookingRepository bookingRepository, BookingIntervalIndex bookingIndex,
+                                 @Value("${shareit.booking.summary.mode:index}") BookingSummaryMode mode) {
+        this.bookingRepository = bookingRepository;
+        this.bookingIndex = bookingIndex;
+        this.mode = mode;
+    }
+
+    public Map<Integer, BookingSummary> summaries(Collection<Integer> itemIds, LocalDateTime now) {
+        Map<Integer, BookingSummary> summaries = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return summaries;
+        }
+
+        if (mode == BookingSummaryMode.INDEX && bookingIndex.enabled()) {
+            for (Integer itemId : itemIds) {
+                BookingSummary summary = new BookingSummary();
+                summary.setLastBooking(toResponse(bookingIndex.lastBooking(itemId, now)));
+                summary.setNextBooking(toResponse(bookingIndex.nextBooking(itemId, now)));
+                summaries.put(itemId, summary);
+            }
+            return summaries;
+        }
+
+        List<BookingSummaryRow> rows = bookingRepository.findLastAndNextByItemIds(itemIds, now);
+        for (BookingSummaryRow row : rows) {
+            BookingSummary summary = summaries.computeIfAbsent(row.getItemId(), id -> new BookingSummary());
+            BookingDtoResponse booking = new BookingDtoResponse(row.getId(), row.getBookerId(),
+                    row.getStartBooking(), row.getEndBooking());
+            if (booking.getStart().isBefore(now)) {
+                summary.setLastBooking(booking);
+            } else {
+                summary.setNextBooking(booking);
+            }
+        }
+        return summaries;
+    }
+
+    public BookingSummary summary(int itemId, LocalDateTime now) {
+        return summaries(List.of(itemId), now).getOrDefault(itemId, new BookingSummary());
+    }
+
+    private static BookingDtoResponse toResponse(BookingInterval booking) {
+        return booking == null ? null : toBookingDtoResponse(booking);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатая таблица блокировок для записи бронирований в пределах одного экземпляра сервера.
+ * Запись бронирований одного предмета идет последовательно, разных предметов — параллельно,
+ * пока их id не попали в одну полосу. По умолчанию полос в четыре раза больше, чем ядер.
+ */
+@Slf4j
+@Component
+public class ItemLockTable {
+
+    private final ReentrantLock[] stripes;
+
+    public ItemLockTable(@Value("${shareit.booking.lock.stripes:0}") int stripes) {
+        int requested = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4;
+        int size = 1;
+        while (size < requested) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        log.info("Таблица блокировок предметов: {} полос.", size);
+    }
+
+    public <T> T withItem(int itemId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(itemId)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Полосы захватываются по возрастанию номера, поэтому пересекающиеся наборы предметов не приводят к взаимной блокировке.
+     */
+    public <T> T withItems(Collection<Integer> itemIds, Supplier<T> action) {
+        int[] locked = itemIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        int acquired = 0;
+        try {
+            for (int stripe : locked) {
+                stripes[stripe].lock();
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[locked[i]].unlock();
+            }
+        }
+    }
+
+    private int stripe(int itemId) {
+        int hash = itemId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -16,9 +16,9 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
-    @ExceptionHandler
+    @ExceptionHandler({EmailConflictException.class, BookingConflictException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse handlerEmailConflictException(final EmailConflictException e) {
+    public ErrorResponse handlerConflictException(final Exception e) {
         e.printStackTrace();
         return new ErrorResponse(e.getMessage());
     }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.item;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CommentDtoJson;
 import ru.practicum.shareit.item.dto.item.ItemDto;
@@ -22,14 +23,21 @@ public class ItemController {
     private ItemService itemService;
 
     @GetMapping
-    public List<ItemDtoResponse> getAllItem(@RequestHeader(value = SHARER_USER) int idUser) {
+    public List<ItemDtoResponse> getAllItem(@RequestHeader(value = SHARER_USER) int idUser, WebRequest request) {
         log.debug("Поступил запрос на просмотр всех предметов пользователя с id {}.", idUser);
+        if (request.checkNotModified(itemService.getAllItemsETag(idUser))) {
+            return null;
+        }
         return itemService.getAllItems(idUser);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDtoResponse getItemById(@RequestHeader(SHARER_USER) int idUser, @PathVariable int itemId) {
+    public ItemDtoResponse getItemById(@RequestHeader(SHARER_USER) int idUser, @PathVariable int itemId,
+                                       WebRequest request) {
         log.debug("Поступил запрос на просмотр предмета с id {}.", itemId);
+        if (request.checkNotModified(itemService.getItemETag(itemId, idUser))) {
+            return null;
+        }
         return itemService.getItemById(itemId, idUser);
     }
 
@@ -54,9 +62,11 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam("text") String text) {
+    public List<ItemDto> search(@RequestParam("text") String text,
+                                @RequestParam(defaultValue = "0") int from,
+                                @RequestParam(required = false) Integer size) {
         log.debug("Поступил запрос по поиску предметов с наличием фрагмента {}", text);
-        return itemService.search(text);
+        return itemService.search(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.util.EntityVersion;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
@@ -11,4 +14,8 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
     List<Comment> findByItemIdIn(List<Integer> itemIds);
 
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(c.id, a.version) FROM Comment c JOIN c.author a " +
+            "WHERE c.item.id IN :itemIds ORDER BY c.id")
+    List<EntityVersion> findAuthorVersionsByItemIdIn(Collection<Integer> itemIds);
+
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+public interface ItemLockRepository {
+
+    /**
+     * Увеличивает версию предмета при фиксации транзакции.
+     * Две транзакции, одновременно подтверждающие бронирования одного предмета, не могут зафиксироваться обе.
+     */
+    void lockForApproval(Item item);
+}
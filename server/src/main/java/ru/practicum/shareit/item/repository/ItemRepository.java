@@ -1,23 +1,47 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.EntityVersion;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Integer> {
+public interface ItemRepository extends JpaRepository<Item, Integer>, ItemLockRepository {
 
     List<Item> findAllByOwnerId(Integer id);
 
+    List<Item> findAllByOwnerIdOrderByIdAsc(Integer id);
+
+    List<Item> findAllByIsAvailableTrue();
+
     @Query("select i from Item i where (lower(i.name) like lower(concat('%', ?1, '%')) " +
             "or lower(i.description) like lower(concat('%', ?1, '%'))) and is_available = true")
     List<Item> search(String text);
 
+    @Query("select i from Item i where (lower(i.name) like lower(concat('%', ?1, '%')) " +
+            "or lower(i.description) like lower(concat('%', ?1, '%'))) and is_available = true order by i.id")
+    List<Item> search(String text, Pageable pageable);
+
+    @Query(value = "select * from item i where i.is_available = true " +
+            "and (lower(i.name) like lower(concat('%', ?1, '%')) or lower(i.description) like lower(concat('%', ?1, '%'))) " +
+            "order by i.id", nativeQuery = true)
+    List<Item> searchTrigram(String text, Pageable pageable);
+
     @Query("SELECT i FROM Item i WHERE i.request.id IN :requestIds")
     List<Item> findAllByRequestIdIn(List<Integer> requestIds);
 
     List<Item> findAllByRequestId(int requestId);
+
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(i.id, i.version) FROM Item i " +
+            "WHERE i.owner.id = :ownerId ORDER BY i.id")
+    List<EntityVersion> findVersionsByOwnerId(int ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(i.id, i.version) FROM Item i " +
+            "WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<EntityVersion> findVersionsByRequestIdIn(Collection<Integer> requestIds);
 }
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.MapperItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ItemSearchEngine {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final ItemRepository itemRepository;
+    private final DataSource dataSource;
+    private final ItemSearchMode mode;
+    private ItemSearchIndex index;
+    private boolean trigram;
+
+    public ItemSearchEngine(ItemRepository itemRepository, DataSource dataSource,
+                            @Value("${shareit.item.search.mode:index}") ItemSearchMode mode) {
+        this.itemRepository = itemRepository;
+        this.dataSource = dataSource;
+        this.mode = mode;
+    }
+
+    @PostConstruct
+    public void init() throws MetaDataAccessException {
+        if (mode == ItemSearchMode.INDEX) {
+            index = new ItemSearchIndex(itemRepository);
+            index.warmUp();
+        } else {
+            String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            trigram = POSTGRESQL.equals(database);
+            log.info("Поиск предметов выполняется в базе данных {}, триграммный индекс: {}.", database, trigram);
+        }
+    }
+
+    public void index(Item item) {
+        if (index != null) {
+            index.index(item);
+        }
+    }
+
+    public void remove(int itemId) {
+        if (index != null) {
+            index.remove(itemId);
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+        if (index != null) {
+            return index.search(text, from, size);
+        }
+
+        Pageable pageable = OffsetPageRequest.of(from, size);
+        List<Item> items = trigram ? itemRepository.searchTrigram(text, pageable) : itemRepository.search(text, pageable);
+        return items.stream()
+                .map(MapperItemDto::toItemDto)
+                .collect(Collectors.toList());
+    }
+}
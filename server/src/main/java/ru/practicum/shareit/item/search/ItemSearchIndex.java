@@ -0,0 +1,238 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.item.dto.item.MapperItemDto.toItemDto;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания доступных предметов.
+ * Сохраняет семантику поиска подстроки: кандидаты из пересечения списков триграмм
+ * перепроверяются на вхождение текста запроса.
+ */
+@Slf4j
+public class ItemSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, IndexedItem> items = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    public void warmUp() {
+        List<Item> available = itemRepository.findAllByIsAvailableTrue();
+        available.forEach(this::index);
+        log.info("Поисковый индекс загружен: {} предметов, {} триграмм.", items.size(), postings.size());
+    }
+
+    public void index(Item item) {
+        if (!Boolean.TRUE.equals(item.getIsAvailable())) {
+            remove(item.getId());
+            return;
+        }
+        IndexedItem indexed = new IndexedItem(toItemDto(item));
+
+        lock.writeLock().lock();
+        try {
+            unindex(item.getId());
+            items.put(item.getId(), indexed);
+            for (String gram : indexed.grams()) {
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(item.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int itemId) {
+        lock.writeLock().lock();
+        try {
+            unindex(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+        String query = normalize(text);
+        long limit = (long) from + size;
+        List<List<ItemDto>> ranked = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = postingLists(query);
+            int[] candidates = lists.isEmpty() ? allIds() : lists.get(0).ids;
+            int count = lists.isEmpty() ? candidates.length : lists.get(0).size();
+
+            for (int i = 0; i < count; i++) {
+                int id = candidates[i];
+                if (!containedInAll(lists, id)) {
+                    continue;
+                }
+                IndexedItem item = items.get(id);
+                int rank = item.rank(query);
+                if (rank < 0 || ranked.get(rank).size() >= limit) {
+                    continue;
+                }
+                ranked.get(rank).add(item.dto);
+                if (rank == 0 && ranked.get(0).size() >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return ranked.stream()
+                .flatMap(List::stream)
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private List<PostingList> postingLists(String query) {
+        if (query.length() < GRAM) {
+            return List.of();
+        }
+
+        List<PostingList> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return List.of(new PostingList());
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        return lists;
+    }
+
+    private int[] allIds() {
+        return items.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static boolean containedInAll(List<PostingList> lists, int id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void unindex(int itemId) {
+        IndexedItem previous = items.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            PostingList list = postings.get(gram);
+            list.remove(itemId);
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class IndexedItem {
+
+        private final ItemDto dto;
+        private final String name;
+        private final String description;
+
+        IndexedItem(ItemDto dto) {
+            this.dto = dto;
+            this.name = normalize(dto.getName());
+            this.description = normalize(dto.getDescription());
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+
+        int rank(String query) {
+            if (name.startsWith(query)) {
+                return 0;
+            }
+            if (name.contains(query)) {
+                return 1;
+            }
+            return description.contains(query) ? 2 : -1;
+        }
+    }
+
+    private static class PostingList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
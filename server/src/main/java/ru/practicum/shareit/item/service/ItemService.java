@@ -15,13 +15,17 @@ public interface ItemService {
 
     ItemDtoResponse getItemById(int idItem, int idUser);
 
+    String getAllItemsETag(int idUser);
+
+    String getItemETag(int idItem, int idUser);
+
     ItemDto postItem(ItemDto itemDto, int idUser);
 
     ItemDto update(ItemDto itemDto, int idItem, int idUser);
 
     void delete(int idItem, int idUser);
 
-    List<ItemDto> search(String text);
+    List<ItemDto> search(String text, int from, Integer size);
 
     CommentDto postComment(CommentDtoJson comment, int idUser, int itemId);
 }
@@ -4,33 +4,35 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.BookingStatusEnum;
-import ru.practicum.shareit.booking.dto.BookingDtoResponse;
-import ru.practicum.shareit.booking.dto.MapperBookingDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingSummary;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingSummaryService;
 import ru.practicum.shareit.exception.BookingBadRequest;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CommentDtoJson;
 import ru.practicum.shareit.item.dto.comment.MapperCommentDto;
 import ru.practicum.shareit.item.dto.item.ItemDtoResponse;
-import ru.practicum.shareit.item.dto.item.MapperItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
+import ru.practicum.shareit.util.ETagBuilder;
+import ru.practicum.shareit.util.EntityVersion;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static ru.practicum.shareit.booking.dto.MapperBookingDto.toBookingDtoResponse;
 import static ru.practicum.shareit.item.dto.comment.MapperCommentDto.toComment;
 import static ru.practicum.shareit.item.dto.comment.MapperCommentDto.toCommentDto;
 import static ru.practicum.shareit.item.dto.item.MapperItemDto.toItem;
@@ -50,76 +52,57 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
+    private final ItemSearchEngine searchEngine;
+    private final BookingSummaryService bookingSummaryService;
+    private final UserExistenceService userExistence;
 
     @Override
     public List<ItemDtoResponse> getAllItems(int idUser) {
         log.debug("Обрабатываем запрос на просмотр списка всех предметов пользователя с id {}.", idUser);
 
-        List<Item> items = itemRepository.findAllByOwnerId(idUser);
-        List<Integer> itemIds = items.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-
-        List<Booking> bookings = bookingRepository.findBookingsByItemIds(itemIds);
+        List<Item> items = itemRepository.findAllByOwnerIdOrderByIdAsc(idUser);
+        List<Integer> itemIds = new ArrayList<>(items.size());
+        for (Item item : items) {
+            itemIds.add(item.getId());
+        }
 
         List<Comment> comments = commentRepository.findByItemIdIn(itemIds);
 
-        Map<Integer, List<Booking>> bookingMap = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
         Map<Integer, List<Comment>> commentMap = comments.stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
 
-        return items.stream()
-                .map(item -> {
-                    ItemDtoResponse itemDtoResponse = toItemResponse(item);
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, BookingSummary> summaries = bookingSummaryService.summaries(itemIds, now);
+        List<ItemDtoResponse> result = new ArrayList<>(items.size());
+        for (Item item : items) {
+            ItemDtoResponse itemDtoResponse = toItemResponse(item);
 
-                    List<Booking> itemBookings = bookingMap.getOrDefault(item.getId(), Collections.emptyList());
-                    List<Comment> itemComments = commentMap.getOrDefault(item.getId(), Collections.emptyList());
+            List<Comment> itemComments = commentMap.getOrDefault(item.getId(), Collections.emptyList());
 
-                    BookingDtoResponse lastBooking = itemBookings.stream()
-                            .map(MapperBookingDto::toBookingDtoResponse)
-                            .filter(booking -> booking.getStart().isBefore(LocalDateTime.now()))
-                            .max(Comparator.comparing(BookingDtoResponse::getStart))
-                            .orElse(null);
-
-                    BookingDtoResponse nextBooking = itemBookings.stream()
-                            .map(MapperBookingDto::toBookingDtoResponse)
-                            .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                            .min(Comparator.comparing(BookingDtoResponse::getStart))
-                            .orElse(null);
-
-                    List<CommentDto> commentDto = itemComments.stream()
-                            .map(MapperCommentDto::toCommentDto)
-                            .collect(Collectors.toList());
-
-                    itemDtoResponse.setLastBooking(lastBooking);
-                    itemDtoResponse.setNextBooking(nextBooking);
-                    itemDtoResponse.setComments(commentDto);
+            List<CommentDto> commentDto = new ArrayList<>(itemComments.size());
+            for (Comment comment : itemComments) {
+                commentDto.add(toCommentDto(comment));
+            }
 
-                    return itemDtoResponse;
-                })
-                .sorted(Comparator.comparing(ItemDtoResponse::getId))
-                .collect(Collectors.toList());
+            BookingSummary summary = summaries.getOrDefault(item.getId(), new BookingSummary());
+            itemDtoResponse.setLastBooking(summary.getLastBooking());
+            itemDtoResponse.setNextBooking(summary.getNextBooking());
+            itemDtoResponse.setComments(commentDto);
+            result.add(itemDtoResponse);
+        }
+        return result;
     }
 
     @Override
     public ItemDtoResponse getItemById(int idItem, int idUser) {
         log.debug("Обрабатываем запрос на просмотр предмета с id {}.", idItem);
-        ItemDtoResponse item = toItemResponse(exceptionIfNotItem(idItem));
+        Item entity = exceptionIfNotItem(idItem);
+        ItemDtoResponse item = toItemResponse(entity);
 
-        List<Booking> bookingLastList = bookingRepository.findLastBookingByOwnerId(item.getId(), idUser, BookingStatusEnum.REJECTED, LocalDateTime.now());
-        if (bookingLastList.isEmpty()) {
-            item.setLastBooking(null);
-        } else {
-            item.setLastBooking(toBookingDtoResponse(bookingLastList.get(0)));
-        }
-
-        List<Booking> bookingNextList = bookingRepository.findNextBookingByOwnerId(item.getId(), idUser, BookingStatusEnum.REJECTED, LocalDateTime.now());
-        if (bookingNextList.isEmpty()) {
-            item.setNextBooking(null);
-        } else {
-            item.setNextBooking(toBookingDtoResponse(bookingNextList.get(0)));
+        if (entity.getOwner().getId() == idUser) {
+            BookingSummary summary = bookingSummaryService.summary(idItem, LocalDateTime.now());
+            item.setLastBooking(summary.getLastBooking());
+            item.setNextBooking(summary.getNextBooking());
         }
 
         List<CommentDto> listComment = commentRepository.findByItemId(idItem).stream()
@@ -133,11 +116,49 @@ public class ItemServiceImpl implements ItemService {
         return item;
     }
 
+    @Override
+    public String getAllItemsETag(int idUser) {
+        List<EntityVersion> items = itemRepository.findVersionsByOwnerId(idUser);
+        ETagBuilder etag = ETagBuilder.of("items").addAll(items);
+        if (items.isEmpty()) {
+            return etag.build();
+        }
+
+        List<Integer> itemIds = new ArrayList<>(items.size());
+        for (EntityVersion item : items) {
+            itemIds.add(item.getId());
+        }
+        etag.addAll(commentRepository.findAuthorVersionsByItemIdIn(itemIds));
+
+        Map<Integer, BookingSummary> summaries = bookingSummaryService.summaries(itemIds, LocalDateTime.now());
+        for (Integer itemId : itemIds) {
+            BookingSummary summary = summaries.getOrDefault(itemId, new BookingSummary());
+            etag.add(summary.getLastBooking()).add(summary.getNextBooking());
+        }
+        return etag.build();
+    }
+
+    @Override
+    public String getItemETag(int idItem, int idUser) {
+        Item item = exceptionIfNotItem(idItem);
+        ETagBuilder etag = ETagBuilder.of("item")
+                .add(item.getId())
+                .add(item.getVersion())
+                .addAll(commentRepository.findAuthorVersionsByItemIdIn(List.of(idItem)));
+
+        if (item.getOwner().getId() == idUser) {
+            BookingSummary summary = bookingSummaryService.summary(idItem, LocalDateTime.now());
+            etag.add(summary.getLastBooking()).add(summary.getNextBooking());
+        }
+        return etag.build();
+    }
+
     @Override
     public ItemDto postItem(ItemDto itemDto, int idUser) {
         log.debug("Обрабатываем запрос на добавление предмета с названием {}.", itemDto.getName());
         validate(itemDto);
-        User user = exceptionIfNotUser(idUser);
+        userExistence.requireExists(idUser);
+        User user = userRepository.getReferenceById(idUser);
         Item item = toItem(itemDto);
         if (itemDto.getRequestId() != null) {
             ItemRequest request = requestRepository.getReferenceById(itemDto.getRequestId());
@@ -146,7 +167,9 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(null);
         }
         item.setOwner(user);
-        return toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        searchEngine.index(saved);
+        return toItemDto(saved);
     }
 
     @Override
@@ -170,7 +193,9 @@ public class ItemServiceImpl implements ItemService {
                 item.setIsAvailable(itemDto.getAvailable());
             }
             item.setId(idItem);
-            return toItemDto(itemRepository.save(item));
+            Item saved = itemRepository.save(item);
+            searchEngine.index(saved);
+            return toItemDto(saved);
         } else {
             log.warn(NOT_FOUND_ITEM.getValue(), idItem);
             throw new ItemNotFoundException(String.format("Предмета с id %d не существует", idItem));
@@ -187,18 +212,21 @@ public class ItemServiceImpl implements ItemService {
             throw new ItemNotFoundException("Вы не являетесь владельцем данного предмета.");
         }
         itemRepository.deleteById(idItem);
+        searchEngine.remove(idItem);
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    public List<ItemDto> search(String text, int from, Integer size) {
         log.debug("Обрабатываем запрос по поиску предметов с наличием фрагмента {}.", text);
 
+        if (from < 0 || (size != null && size < 1)) {
+            log.warn("Отрицательный параметр страницы.");
+            throw new ValidationException("Параметры страниц не могут быть отрицательными");
+        }
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        return itemRepository.search(text).stream()
-                .map(MapperItemDto::toItemDto)
-                .collect(Collectors.toList());
+        return searchEngine.search(text, from, size == null ? Integer.MAX_VALUE : size);
     }
 
     @Override
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Записывает события об изменении статуса бронирований в outbox в текущей транзакции,
+ * вместе с записью о доставке для каждого включенного получателя.
+ * После фиксации транзакции рассылка запускается сразу, не дожидаясь очередного опроса.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxDeliveryRepository deliveryRepository;
+    private final OutboxDispatcher dispatcher;
+
+    public void record(Booking booking) {
+        recordAll(List.of(booking));
+    }
+
+    public void recordAll(Collection<Booking> bookings) {
+        List<String> sinks = dispatcher.sinkNames();
+        if (bookings.isEmpty() || sinks.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = outboxRepository.saveAll(bookings.stream()
+                .map(booking -> new OutboxEvent(booking, now))
+                .collect(Collectors.toList()));
+        List<OutboxDelivery> deliveries = new ArrayList<>(events.size() * sinks.size());
+        for (OutboxEvent event : events) {
+            sinks.forEach(sink -> deliveries.add(new OutboxDelivery(event, sink)));
+        }
+        deliveryRepository.saveAll(deliveries);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        }
+    }
+}
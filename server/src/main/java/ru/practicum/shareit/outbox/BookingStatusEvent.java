@@ -0,0 +1,32 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие об изменении статуса бронирования в том виде, в котором его получают получатели.
+ * Доставка не реже одного раза: повторы отличаются от новых событий по eventId.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusEvent {
+
+    private long eventId;
+    private int bookingId;
+    private int itemId;
+    private int bookerId;
+    private BookingStatusEnum status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private LocalDateTime occurredAt;
+
+    public static BookingStatusEvent of(OutboxEvent event) {
+        return new BookingStatusEvent(event.getId(), event.getBookingId(), event.getItemId(), event.getBookerId(),
+                event.getStatus(), event.getStart(), event.getEnd(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Недоставленное событие для одного получателя. Удаляется после доставки; после исчерпания попыток
+ * остается с отметкой dead_lettered_at вместе с событием, чтобы его можно было разобрать и отправить заново.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_outbox_delivery")
+public class OutboxDelivery {
+
+    @Id
+    @Column(name = "id")
+    @GenericGenerator(name = "booking_outbox_delivery_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "booking_outbox_delivery_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
+    @GeneratedValue(generator = "booking_outbox_delivery_generator")
+    private long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id")
+    private OutboxEvent event;
+    @Column(name = "sink")
+    private String sink;
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+    @Column(name = "last_error")
+    private String lastError;
+
+    public OutboxDelivery(OutboxEvent event, String sink) {
+        this.event = event;
+        this.sink = sink;
+    }
+}
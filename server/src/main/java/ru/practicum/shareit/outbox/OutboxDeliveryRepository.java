@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxDeliveryRepository extends JpaRepository<OutboxDelivery, Long> {
+
+    @Query("select d from OutboxDelivery d join fetch d.event e " +
+            "where d.sink = ?1 and d.deadLetteredAt is null order by e.id")
+    List<OutboxDelivery> findPending(String sink, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxDelivery d set d.deadLetteredAt = ?2, d.lastError = ?3 where d.id in ?1")
+    int deadLetter(Collection<Long> ids, LocalDateTime deadLetteredAt, String error);
+
+    boolean existsBySinkAndDeadLetteredAtIsNull(String sink);
+
+    long countBySinkAndDeadLetteredAtIsNotNull(String sink);
+}
@@ -0,0 +1,251 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая рассылка событий из outbox включенным получателям пачками по {@code batchSize}.
+ * Каждый получатель идет по своим записям о доставке: пачка выбирается и берется в аренду в короткой транзакции,
+ * доставляется вне транзакции и без блокировок, а затем в другой короткой транзакции ее записи удаляются.
+ * При сбое получатель ждет паузу, растущую вдвое с каждой попыткой до {@code maxBackoff}; после {@code maxAttempts}
+ * неудач подряд пачка откладывается в dead letter, и рассылка этому получателю идет дальше.
+ * Остальные получатели сбоя не замечают и повторно ничего не получают.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxDeliveryRepository deliveryRepository;
+    private final OutboxSinkStateRepository sinkStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<OutboxSink> sinks;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    public OutboxDispatcher(OutboxRepository outboxRepository, OutboxDeliveryRepository deliveryRepository,
+                            OutboxSinkStateRepository sinkStateRepository, TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry, List<OutboxSink> sinks,
+                            @Value("${shareit.outbox.sinks:listener}") Set<String> enabled,
+                            @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                            @Value("${shareit.outbox.poll-interval:1s}") Duration pollInterval,
+                            @Value("${shareit.outbox.lease:30s}") Duration lease,
+                            @Value("${shareit.outbox.retry.initial-backoff:1s}") Duration initialBackoff,
+                            @Value("${shareit.outbox.retry.max-backoff:5m}") Duration maxBackoff,
+                            @Value("${shareit.outbox.retry.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.sinkStateRepository = sinkStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.sinks = sinks.stream()
+                .filter(sink -> enabled.contains(sink.name()))
+                .collect(Collectors.toList());
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+
+        Set<String> known = sinks.stream().map(OutboxSink::name).collect(Collectors.toSet());
+        enabled.stream()
+                .filter(name -> !known.contains(name))
+                .forEach(name -> log.warn("Неизвестный получатель событий outbox: {}.", name));
+    }
+
+    @PostConstruct
+    public void start() {
+        for (OutboxSink sink : sinks) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!sinkStateRepository.existsById(sink.name())) {
+                        sinkStateRepository.save(new OutboxSinkState(sink.name()));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Outbox: состояние получателя {} уже создано другим экземпляром.", sink.name());
+            }
+        }
+        adoptEventsWithoutDeliveries();
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Рассылка событий outbox: получатели {}, пачка {}, опрос раз в {}, не более {} попыток.",
+                sinkNames(), batchSize, pollInterval, maxAttempts);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public List<String> sinkNames() {
+        return sinks.stream().map(OutboxSink::name).collect(Collectors.toList());
+    }
+
+    public void wakeUp() {
+        if (pending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                pending.set(false);
+            }
+        }
+    }
+
+    private void drain() {
+        pending.set(false);
+        for (OutboxSink sink : sinks) {
+            try {
+                while (dispatchBatch(sink) == batchSize) {
+                    log.debug("Outbox: пачка получателя {} заполнена, продолжаем рассылку.", sink.name());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Outbox: рассылка получателю {} прервана: {}", sink.name(), e.getMessage());
+            }
+        }
+    }
+
+    int dispatchBatch(OutboxSink sink) {
+        List<OutboxDelivery> batch = transactionTemplate.execute(status -> claim(sink));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<BookingStatusEvent> payload = batch.stream()
+                .map(delivery -> BookingStatusEvent.of(delivery.getEvent()))
+                .collect(Collectors.toList());
+        Exception failure = null;
+        try {
+            sink.deliver(payload);
+        } catch (Exception e) {
+            failure = e;
+        }
+
+        Exception result = failure;
+        transactionTemplate.executeWithoutResult(status -> complete(sink, batch, result));
+        return failure == null ? batch.size() : 0;
+    }
+
+    /**
+     * Берет в аренду очередную пачку получателя, если он не ждет повтора и пачку не доставляет другой экземпляр.
+     * Пока доставлять нечего, строка состояния не блокируется.
+     */
+    private List<OutboxDelivery> claim(OutboxSink sink) {
+        if (!deliveryRepository.existsBySinkAndDeadLetteredAtIsNull(sink.name())) {
+            return List.of();
+        }
+        OutboxSinkState state = sinkStateRepository.lock(sink.name()).orElse(null);
+        LocalDateTime now = LocalDateTime.now();
+        if (state == null || !state.isReady(now)) {
+            return List.of();
+        }
+        List<OutboxDelivery> batch = deliveryRepository.findPending(sink.name(), PageRequest.of(0, batchSize));
+        if (!batch.isEmpty()) {
+            state.setLeasedUntil(now.plus(lease));
+        }
+        return batch;
+    }
+
+    private void complete(OutboxSink sink, List<OutboxDelivery> batch, Exception failure) {
+        OutboxSinkState state = sinkStateRepository.lock(sink.name()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> deliveryIds = batch.stream().map(OutboxDelivery::getId).collect(Collectors.toList());
+        state.setLeasedUntil(null);
+
+        if (failure == null) {
+            state.setAttempts(0);
+            state.setNextAttemptAt(null);
+            deliveryRepository.deleteAllByIdInBatch(deliveryIds);
+            outboxRepository.deleteDelivered(batch.stream()
+                    .map(delivery -> delivery.getEvent().getId())
+                    .collect(Collectors.toList()));
+            counter(sink, "delivered").increment(batch.size());
+            log.debug("Outbox: получателю {} доставлено {} событий.", sink.name(), batch.size());
+            return;
+        }
+
+        int attempts = state.getAttempts() + 1;
+        counter(sink, "failed").increment(batch.size());
+        if (attempts >= maxAttempts) {
+            deliveryRepository.deadLetter(deliveryIds, now, String.valueOf(failure.getMessage()));
+            state.setAttempts(0);
+            state.setNextAttemptAt(null);
+            counter(sink, "dead_lettered").increment(batch.size());
+            log.error("Outbox: получатель {} не принял {} событий за {} попыток, они отложены в dead letter: {}",
+                    sink.name(), batch.size(), attempts, failure.getMessage());
+            return;
+        }
+        Duration backoff = backoff(attempts);
+        state.setAttempts(attempts);
+        state.setNextAttemptAt(now.plus(backoff));
+        log.warn("Outbox: получатель {} не принял {} событий, попытка {}, следующая через {}: {}", sink.name(),
+                batch.size(), attempts, backoff, failure.getMessage());
+    }
+
+    Duration backoff(int attempts) {
+        long factor = 1L << Math.min(attempts - 1, 30);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    /**
+     * События, записанные до учета доставки по получателям, получают записи о доставке для включенных получателей.
+     */
+    private void adoptEventsWithoutDeliveries() {
+        try {
+            Integer adopted = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxRepository.findWithoutDeliveries();
+                List<OutboxDelivery> deliveries = new ArrayList<>(events.size() * sinks.size());
+                for (OutboxEvent event : events) {
+                    sinks.forEach(sink -> deliveries.add(new OutboxDelivery(event, sink.name())));
+                }
+                deliveryRepository.saveAll(deliveries);
+                return events.size();
+            });
+            if (adopted != null && adopted > 0) {
+                log.info("Outbox: {} ранее записанных событий поставлены в рассылку получателям {}.", adopted, sinkNames());
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Outbox: ранее записанные события уже поставлены в рассылку другим экземпляром.");
+        }
+    }
+
+    private Counter counter(OutboxSink sink, String result) {
+        return meterRegistry.counter("shareit.outbox.events", "sink", sink.name(), "result", result);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_outbox")
+public class OutboxEvent {
+
+    @Id
+    @Column(name = "id")
+    @GenericGenerator(name = "booking_outbox_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "booking_outbox_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
+    @GeneratedValue(generator = "booking_outbox_generator")
+    private long id;
+    @Column(name = "booking_id")
+    private int bookingId;
+    @Column(name = "item_id")
+    private int itemId;
+    @Column(name = "booker_id")
+    private int bookerId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private BookingStatusEnum status;
+    @Column(name = "start_booking")
+    private LocalDateTime start;
+    @Column(name = "end_booking")
+    private LocalDateTime end;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public OutboxEvent(Booking booking, LocalDateTime createdAt) {
+        this.bookingId = booking.getId();
+        this.itemId = booking.getItem().getId();
+        this.bookerId = booking.getBooker().getId();
+        this.status = booking.getStatus();
+        this.start = booking.getStart();
+        this.end = booking.getEnd();
+        this.createdAt = createdAt;
+    }
+}
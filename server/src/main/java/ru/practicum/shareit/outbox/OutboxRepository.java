@@ -0,0 +1,26 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * События без единой записи о доставке: остались от версии без учета доставки по получателям.
+     */
+    @Query("select e from OutboxEvent e where not exists (select d.id from OutboxDelivery d where d.event = e) order by e.id")
+    List<OutboxEvent> findWithoutDeliveries();
+
+    /**
+     * Удаляет события, которые доставлены всем получателям. События с отложенными доставками остаются.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in ?1 and not exists (select d.id from OutboxDelivery d where d.event = e)")
+    int deleteDelivered(Collection<Long> ids);
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Состояние рассылки одному получателю: число неудачных попыток подряд, время следующей попытки
+ * и аренда пачки, которую сейчас доставляет один из экземпляров сервера.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_outbox_sink")
+public class OutboxSinkState {
+
+    @Id
+    @Column(name = "sink")
+    private String sink;
+    @Column(name = "attempts")
+    private int attempts;
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    @Column(name = "leased_until")
+    private LocalDateTime leasedUntil;
+
+    public OutboxSinkState(String sink) {
+        this.sink = sink;
+    }
+
+    public boolean isReady(LocalDateTime now) {
+        return (nextAttemptAt == null || !nextAttemptAt.isAfter(now))
+                && (leasedUntil == null || !leasedUntil.isAfter(now));
+    }
+}
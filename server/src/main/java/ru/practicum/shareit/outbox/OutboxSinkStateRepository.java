@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface OutboxSinkStateRepository extends JpaRepository<OutboxSinkState, String> {
+
+    /**
+     * Состояние получателя под блокировкой строки. Блокировка держится только на время короткой транзакции
+     * выбора или завершения пачки, сама доставка идет без нее.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from OutboxSinkState s where s.sink = ?1")
+    Optional<OutboxSinkState> lock(String sink);
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.outbox.sink;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Дописывает события в файл по одному JSON на строку.
+ */
+@Component
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper mapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper mapper,
+                          @Value("${shareit.outbox.file.path:outbox/booking-events.ndjson}") Path path) {
+        this.mapper = mapper;
+        this.path = path;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<BookingStatusEvent> events) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (BookingStatusEvent event : events) {
+                writer.write(mapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        }
+    }
+}
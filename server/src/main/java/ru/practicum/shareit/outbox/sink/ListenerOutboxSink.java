@@ -0,0 +1,31 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.util.List;
+
+/**
+ * Публикует события внутри процесса: их получают методы с {@code @EventListener(BookingStatusEvent.class)}
+ * в потоке рассылки, вне транзакции запроса.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListenerOutboxSink implements OutboxSink {
+
+    public static final String NAME = "listener";
+
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void deliver(List<BookingStatusEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
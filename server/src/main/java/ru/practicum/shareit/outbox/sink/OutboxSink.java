@@ -0,0 +1,16 @@
+package ru.practicum.shareit.outbox.sink;
+
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.util.List;
+
+/**
+ * Получатель событий из outbox. Доставка учитывается отдельно для каждого получателя: исключение из deliver
+ * означает, что пачка придет этому получателю повторно, другие получатели ее больше не получат.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<BookingStatusEvent> events) throws Exception;
+}
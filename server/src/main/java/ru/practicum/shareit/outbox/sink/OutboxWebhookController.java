@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox.sink;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.util.List;
+
+/**
+ * Заглушка внешнего получателя веб-хуков для локального запуска: принимает события и пишет их в лог.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/outbox/webhook")
+@ConditionalOnProperty(name = "shareit.outbox.webhook.stand-in", havingValue = "true")
+public class OutboxWebhookController {
+
+    @PostMapping
+    public void receive(@RequestBody List<BookingStatusEvent> events) {
+        events.forEach(event -> log.info("Веб-хук: бронирование с id {} предмета с id {} перешло в статус {}.",
+                event.getBookingId(), event.getItemId(), event.getStatus()));
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.outbox.sink;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Отправляет пачку событий одним POST-запросом с JSON-массивом. Любой ответ, кроме 2xx, считается сбоем доставки.
+ */
+@Component
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public WebhookOutboxSink(RestTemplateBuilder builder,
+                             @Value("${shareit.outbox.webhook.url:http://localhost:9090/outbox/webhook}") String url,
+                             @Value("${shareit.outbox.webhook.timeout:2s}") Duration timeout) {
+        this.restTemplate = builder
+                .setConnectTimeout(timeout)
+                .setReadTimeout(timeout)
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<BookingStatusEvent> events) {
+        restTemplate.postForEntity(url, events, Void.class);
+    }
+}
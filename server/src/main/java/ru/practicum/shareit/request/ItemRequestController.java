@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestJson;
 import ru.practicum.shareit.request.dto.ItemRequestResponse;
@@ -28,22 +29,34 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestResponse> getAllRequestByUser(@RequestHeader(value = SHARER_USER) int idUser) {
+    public List<ItemRequestResponse> getAllRequestByUser(@RequestHeader(value = SHARER_USER) int idUser,
+                                                         WebRequest request) {
         log.debug("Поступил запрос на просмотр всех своих запросов от пользователя с id {}.", idUser);
+        if (request.checkNotModified(requestService.getAllRequestByUserETag(idUser))) {
+            return null;
+        }
         return requestService.getAllRequestByUser(idUser);
     }
 
     @GetMapping("/all")
     public List<ItemRequestResponse> getAllRequest(@RequestHeader(value = SHARER_USER) int idUser,
                                         @RequestParam(defaultValue = "0") int from,
-                                        @RequestParam(defaultValue = "10") int size) {
+                                        @RequestParam(defaultValue = "10") int size,
+                                        WebRequest request) {
         log.debug("Поступил запрос на просмотр всех запросов от пользователя с id {}.", idUser);
+        if (request.checkNotModified(requestService.getAllRequestETag(idUser, from, size))) {
+            return null;
+        }
         return requestService.getAllRequest(idUser, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestResponse getRequestById(@RequestHeader(value = SHARER_USER) int idUser, @PathVariable int requestId) {
+    public ItemRequestResponse getRequestById(@RequestHeader(value = SHARER_USER) int idUser, @PathVariable int requestId,
+                                              WebRequest request) {
         log.debug("Поступил запрос на просмотр запроса с id {}.", requestId);
+        if (request.checkNotModified(requestService.getRequestByIdETag(idUser, requestId))) {
+            return null;
+        }
         return requestService.getRequestById(idUser, requestId);
     }
 }
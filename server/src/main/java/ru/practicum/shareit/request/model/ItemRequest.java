@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.model;
 
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -9,7 +10,6 @@ import java.time.LocalDateTime;
 
 @Setter
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Table(name = "requests")
@@ -17,8 +17,13 @@ public class ItemRequest {
 
     @Id
     @Column(name = "id")
-    @GenericGenerator(name = "generator", strategy = "increment")
-    @GeneratedValue(generator = "generator")
+    @GenericGenerator(name = "request_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "requests_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
+    @GeneratedValue(generator = "request_generator")
     private int id;
     @Column(name = "description", length = 300)
     private String description;
@@ -27,6 +32,16 @@ public class ItemRequest {
     private User requester;
     @Column(name = "created")
     private LocalDateTime created;
+    @Version
+    @Column(name = "version")
+    private long version;
+
+    public ItemRequest(int id, String description, User requester, LocalDateTime created) {
+        this.id = id;
+        this.description = description;
+        this.requester = requester;
+        this.created = created;
+    }
 
     public ItemRequest(String description) {
         this.description = description;
@@ -2,10 +2,13 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.util.EntityVersion;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RequestRepository extends JpaRepository<ItemRequest, Integer> {
@@ -13,4 +16,15 @@ public interface RequestRepository extends JpaRepository<ItemRequest, Integer> {
     List<ItemRequest> findByRequesterId(int requestorId);
 
     List<ItemRequest> findAllByRequesterIdNot(int requestorId, Pageable pageable);
+
+    @Query("SELECT r.version FROM ItemRequest r WHERE r.id = :id")
+    Optional<Long> findVersionById(int id);
+
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(r.id, r.version) FROM ItemRequest r " +
+            "WHERE r.requester.id = :requesterId ORDER BY r.id")
+    List<EntityVersion> findVersionsByRequesterId(int requesterId);
+
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(r.id, r.version) FROM ItemRequest r " +
+            "WHERE r.requester.id <> :requesterId")
+    List<EntityVersion> findVersionsByRequesterIdNot(int requesterId, Pageable pageable);
 }
@@ -15,4 +15,10 @@ public interface RequestService {
     List<ItemRequestResponse> getAllRequest(int userId, int from, int size);
 
     ItemRequestResponse getRequestById(int userId, int requestId);
+
+    String getAllRequestByUserETag(int userId);
+
+    String getAllRequestETag(int userId, int from, int size);
+
+    String getRequestByIdETag(int userId, int requestId);
 }
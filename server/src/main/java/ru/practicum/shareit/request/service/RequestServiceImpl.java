@@ -8,7 +8,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.RequestItemBadRequest;
 import ru.practicum.shareit.exception.RequestNotFoundException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.item.ItemDto;
 import ru.practicum.shareit.item.dto.item.MapperItemDto;
 import ru.practicum.shareit.item.model.Item;
@@ -20,6 +19,9 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
+import ru.practicum.shareit.util.ETagBuilder;
+import ru.practicum.shareit.util.EntityVersion;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -28,7 +30,6 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.request.dto.MapperRequestDto.*;
-import static ru.practicum.shareit.util.Constant.NOT_FOUND_USER;
 
 @Service
 @Slf4j
@@ -38,6 +39,7 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceService userExistence;
 
     @Override
     public ItemRequestDto createRequest(int userId, ItemRequestJson requestJson) {
@@ -48,7 +50,8 @@ public class RequestServiceImpl implements RequestService {
         }
 
         ItemRequest request = toRequest(requestJson);
-        User user = exceptionIfNotUser(userId);
+        userExistence.requireExists(userId);
+        User user = userRepository.getReferenceById(userId);
 
         request.setRequester(user);
         request.setCreated(LocalDateTime.now());
@@ -58,7 +61,7 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public List<ItemRequestResponse> getAllRequestByUser(int userId) {
         log.debug("Обрабатываем запрос на просмотр всех своих запросов от пользователя с id {}.", userId);
-        exceptionIfNotUser(userId);
+        userExistence.requireExists(userId);
 
         List<ItemRequest> requests = requestRepository.findByRequesterId(userId);
 
@@ -72,7 +75,7 @@ public class RequestServiceImpl implements RequestService {
         Sort sort = Sort.by(Sort.Order.desc("created"));
         Pageable pageable = PageRequest.of(from, size, sort);
 
-        exceptionIfNotUser(userId);
+        userExistence.requireExists(userId);
 
         List<ItemRequest> requests = requestRepository.findAllByRequesterIdNot(userId, pageable);
 
@@ -82,7 +85,7 @@ public class RequestServiceImpl implements RequestService {
     @Override
     public ItemRequestResponse getRequestById(int userId, int requestId) {
         log.debug("Обрабатываем запрос на просмотр запроса с id {}.", requestId);
-        exceptionIfNotUser(userId);
+        userExistence.requireExists(userId);
 
         ItemRequestResponse itemRequest = toRequestResponse(requestRepository.findById(requestId)
                 .orElseThrow(() -> {
@@ -97,6 +100,48 @@ public class RequestServiceImpl implements RequestService {
         return itemRequest;
     }
 
+    @Override
+    public String getAllRequestByUserETag(int userId) {
+        userExistence.requireExists(userId);
+
+        return requestsETag("requests", requestRepository.findVersionsByRequesterId(userId));
+    }
+
+    @Override
+    public String getAllRequestETag(int userId, int from, int size) {
+        Sort sort = Sort.by(Sort.Order.desc("created"));
+        Pageable pageable = PageRequest.of(from, size, sort);
+
+        userExistence.requireExists(userId);
+
+        return requestsETag("requests-all", requestRepository.findVersionsByRequesterIdNot(userId, pageable));
+    }
+
+    @Override
+    public String getRequestByIdETag(int userId, int requestId) {
+        userExistence.requireExists(userId);
+
+        long version = requestRepository.findVersionById(requestId)
+                .orElseThrow(() -> {
+                    log.warn("Запроса с таким id {} не существует.", requestId);
+                    return new RequestNotFoundException(String.format("Запроса с таким id %d не существует.", requestId));
+                });
+        return ETagBuilder.of("request")
+                .add(requestId)
+                .add(version)
+                .addAll(itemRepository.findVersionsByRequestIdIn(List.of(requestId)))
+                .build();
+    }
+
+    private String requestsETag(String resource, List<EntityVersion> requests) {
+        ETagBuilder etag = ETagBuilder.of(resource).addAll(requests);
+        if (!requests.isEmpty()) {
+            List<Integer> requestIds = requests.stream().map(EntityVersion::getId).collect(Collectors.toList());
+            etag.addAll(itemRepository.findVersionsByRequestIdIn(requestIds));
+        }
+        return etag.build();
+    }
+
     private List<ItemRequestResponse> combiningRequestItem(List<ItemRequest> requests) {
         List<Integer> requestsId = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
 
@@ -117,12 +162,4 @@ public class RequestServiceImpl implements RequestService {
                 })
                 .collect(Collectors.toList());
     }
-
-    private User exceptionIfNotUser(int idUser) {
-        return userRepository.findById(idUser)
-                .orElseThrow(() -> {
-                    log.warn(NOT_FOUND_USER.getValue(), idUser);
-                    return new UserNotFoundException(String.format("Пользователя с таким id %d не существует.", idUser));
-                });
-    }
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -17,14 +18,20 @@ public class UserController {
     private UserService userService;
 
     @GetMapping
-    public List<UserDto> getAllUsers() {
+    public List<UserDto> getAllUsers(WebRequest request) {
         log.debug("Поступил запрос на просмотр всех пользователей.");
+        if (request.checkNotModified(userService.getAllUsersETag())) {
+            return null;
+        }
         return userService.getAllUsers();
     }
 
     @GetMapping("{id}")
-    public UserDto getUserById(@PathVariable int id) {
+    public UserDto getUserById(@PathVariable int id, WebRequest request) {
         log.debug("Поступил запрос на просмотр пользователя с id {}.", id);
+        if (request.checkNotModified(userService.getUserETag(id))) {
+            return null;
+        }
         return userService.getUserById(id);
     }
 
@@ -5,6 +5,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.EntityVersion;
+
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
@@ -12,4 +15,10 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u WHERE u.email = :email")
     boolean emailIsExist(@Param("email") String email);
 
+    @Query("SELECT u.id FROM User u")
+    List<Integer> findAllIds();
+
+    @Query("SELECT new ru.practicum.shareit.util.EntityVersion(u.id, u.version) FROM User u ORDER BY u.id")
+    List<EntityVersion> findAllVersions();
+
 }
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static ru.practicum.shareit.util.Constant.NOT_FOUND_USER;
+
+/**
+ * Битовая карта id существующих пользователей для проверок, которым не нужна сама сущность.
+ * Промах перепроверяется в базе, поэтому пользователь, созданный в обход сервиса, не теряется.
+ * Установленный бит базой не перепроверяется: удаление на другом экземпляре сервера сюда не доходит,
+ * поэтому при нескольких экземплярах карта выключается, и каждая проверка идет в базу.
+ */
+@Slf4j
+@Component
+public class UserExistenceService {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet users = new BitSet();
+
+    public UserExistenceService(UserRepository userRepository,
+                                @Value("${shareit.user.bitmap.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Битовая карта id пользователей выключена, существование проверяется в базе.");
+            return;
+        }
+        List<Integer> ids = userRepository.findAllIds();
+        lock.writeLock().lock();
+        try {
+            ids.forEach(users::set);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Загружено {} id пользователей.", ids.size());
+    }
+
+    public boolean exists(int id) {
+        if (id <= 0) {
+            return false;
+        }
+        if (!enabled) {
+            return userRepository.existsById(id);
+        }
+        lock.readLock().lock();
+        try {
+            if (users.get(id)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean exists = userRepository.existsById(id);
+        if (exists) {
+            add(id);
+        }
+        return exists;
+    }
+
+    public void requireExists(int id) {
+        if (!exists(id)) {
+            log.warn(NOT_FOUND_USER.getValue(), id);
+            throw new UserNotFoundException(String.format("Пользователя с таким id %d не существует.", id));
+        }
+    }
+
+    public void add(int id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            users.set(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            users.clear(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
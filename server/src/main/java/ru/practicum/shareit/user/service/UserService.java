@@ -15,4 +15,8 @@ public interface UserService {
     UserDto updateUser(UserDto user, int id);
 
     void deleteUser(int id);
+
+    String getUserETag(int id);
+
+    String getAllUsersETag();
 }
@@ -10,6 +10,7 @@ import ru.practicum.shareit.user.dto.MapperUserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.util.ETagBuilder;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +27,7 @@ import static ru.practicum.shareit.util.Validation.validate;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserExistenceService userExistence;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -59,6 +61,7 @@ public class UserServiceImpl implements UserService {
             log.warn("Пользователь с таким email {} уже существует", userDto.getEmail());
             throw new DataIntegrityViolationException(String.format("Пользователь с таким email %s уже существует", userDto.getEmail()));
         }
+        userExistence.add(user.getId());
         return toUserDto(user);
     }
 
@@ -94,5 +97,21 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(int id) {
         log.debug("Обрабатываем запрос на удаление пользователя с id {}.", id);
         userRepository.deleteById(id);
+        userExistence.remove(id);
+    }
+
+    @Override
+    public String getUserETag(int id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn(NOT_FOUND_USER.getValue(), id);
+                    return new UserNotFoundException(String.format("Пользователя с таким id %d не существует.", id));
+                });
+        return ETagBuilder.of("user").add(user.getId()).add(user.getVersion()).build();
+    }
+
+    @Override
+    public String getAllUsersETag() {
+        return ETagBuilder.of("users").addAll(userRepository.findAllVersions()).build();
     }
 }
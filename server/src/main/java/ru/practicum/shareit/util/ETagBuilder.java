@@ -0,0 +1,49 @@
+package ru.practicum.shareit.util;
+
+import ru.practicum.shareit.booking.dto.BookingDtoResponse;
+
+import java.util.Collection;
+
+/**
+ * Строгий ETag ответа из id и версий сущностей, из которых он собирается (FNV-1a, 64 бита).
+ * Позволяет ответить 304 до загрузки и маппинга данных.
+ */
+public class ETagBuilder {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    public static ETagBuilder of(String resource) {
+        ETagBuilder builder = new ETagBuilder();
+        resource.chars().forEach(builder::add);
+        return builder;
+    }
+
+    public ETagBuilder add(long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= PRIME;
+        }
+        return this;
+    }
+
+    public ETagBuilder add(EntityVersion entity) {
+        return add(entity.getId()).add(entity.getVersion());
+    }
+
+    public ETagBuilder addAll(Collection<EntityVersion> entities) {
+        add(entities.size());
+        entities.forEach(this::add);
+        return this;
+    }
+
+    public ETagBuilder add(BookingDtoResponse booking) {
+        return add(booking == null ? 0 : booking.getId());
+    }
+
+    public String build() {
+        return Long.toHexString(hash);
+    }
+}
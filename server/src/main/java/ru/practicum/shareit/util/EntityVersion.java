@@ -0,0 +1,12 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EntityVersion {
+
+    private final int id;
+    private final long version;
+}
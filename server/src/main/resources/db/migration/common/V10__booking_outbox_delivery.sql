@@ -0,0 +1,27 @@
+-- Доставка каждого события отслеживается отдельно для каждого получателя: сбой одного получателя
+-- не задерживает остальных и не заставляет их принимать пачку повторно.
+CREATE SEQUENCE IF NOT EXISTS booking_outbox_delivery_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_outbox_delivery (
+    id bigint not null,
+    event_id bigint not null,
+    sink varchar not null,
+    dead_lettered_at timestamp,
+    last_error varchar,
+    CONSTRAINT pk_booking_outbox_delivery PRIMARY KEY (id),
+    CONSTRAINT fk_booking_outbox_delivery_event FOREIGN KEY (event_id) REFERENCES booking_outbox (id),
+    CONSTRAINT uq_booking_outbox_delivery UNIQUE (event_id, sink)
+);
+
+CREATE INDEX IF NOT EXISTS booking_outbox_delivery_sink_event ON booking_outbox_delivery (sink, event_id);
+
+-- Повторы с нарастающей паузой и аренда пачки ведутся по получателю, а не по событию.
+CREATE TABLE IF NOT EXISTS booking_outbox_sink (
+    sink varchar not null,
+    attempts integer default 0 not null,
+    next_attempt_at timestamp,
+    leased_until timestamp,
+    CONSTRAINT pk_booking_outbox_sink PRIMARY KEY (sink)
+);
+
+ALTER TABLE booking_outbox DROP COLUMN attempts;
@@ -0,0 +1,4 @@
+-- Интервал бронирования в событии: по нему получатели (планировщик этапов) ставят переходы в очередь,
+-- не перечитывая бронирование. У событий, записанных раньше, интервала нет.
+ALTER TABLE booking_outbox ADD COLUMN start_booking timestamp;
+ALTER TABLE booking_outbox ADD COLUMN end_booking timestamp;
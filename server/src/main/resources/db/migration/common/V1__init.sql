@@ -1,5 +1,3 @@
-drop table if exists users, item, bookings, requests, comments;
-
 CREATE TABLE IF NOT EXISTS users (
 	id integer generated by default as identity not null,
 	name varchar(100) NOT NULL,
@@ -43,4 +41,4 @@ CREATE TABLE IF NOT EXISTS comments (
     author_id integer not null,
     created timestamp not null,
     CONSTRAINT pk_comments PRIMARY KEY (id)
-);
\ No newline at end of file
+);
@@ -0,0 +1,18 @@
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_item FOREIGN KEY (item_id) REFERENCES item (id);
+ALTER TABLE bookings ADD CONSTRAINT fk_bookings_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- findByBookerId, findByEndIsBeforeAndBookerId, findByStartIsAfterAndBookerId, findByBookerIdAndStartBeforeAndEndAfter
+CREATE INDEX idx_bookings_user_start ON bookings (user_id, start_booking DESC);
+-- findByStatusAndBookerId, existsByBookerIdAndItem_IdAndStatusAndEndBefore
+CREATE INDEX idx_bookings_user_status_start ON bookings (user_id, status, start_booking DESC);
+-- findByItem_Owner_Id*, findAllBookingByOwnerId, findLastBookingByOwnerId, findNextBookingByOwnerId, findBookingsByItemIds
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_booking DESC);
+-- findByItem_Owner_IdAndStatus, existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_booking);
+-- findIntervalsByStatusIn
+CREATE INDEX idx_bookings_status ON bookings (status);
+
+CREATE INDEX idx_item_owner ON item (owner_id);
+CREATE INDEX idx_item_request ON item (request_id);
+CREATE INDEX idx_comments_item ON comments (item_id);
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created DESC);
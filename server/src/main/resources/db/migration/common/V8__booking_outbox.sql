@@ -0,0 +1,14 @@
+-- События об изменении статуса бронирований пишутся в одной транзакции с самим бронированием
+-- и удаляются после доставки всем получателям.
+CREATE SEQUENCE IF NOT EXISTS booking_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id bigint not null,
+    booking_id integer not null,
+    item_id integer not null,
+    booker_id integer not null,
+    status varchar not null,
+    created_at timestamp not null,
+    attempts integer default 0 not null,
+    CONSTRAINT pk_booking_outbox PRIMARY KEY (id)
+);
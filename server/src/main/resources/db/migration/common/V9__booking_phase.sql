@@ -0,0 +1,18 @@
+-- Этап бронирования во времени. Начальное значение считается по часам базы данных,
+-- расхождение с часами сервера исправляет первый обход планировщика при запуске.
+ALTER TABLE bookings ADD COLUMN phase varchar(16) DEFAULT 'UPCOMING' NOT NULL;
+
+UPDATE bookings SET phase = CASE
+    WHEN end_booking <= LOCALTIMESTAMP THEN 'FINISHED'
+    WHEN start_booking <= LOCALTIMESTAMP THEN 'ACTIVE'
+    ELSE 'UPCOMING'
+END;
+
+-- findByBookerIdAndPhase
+CREATE INDEX idx_bookings_user_phase_start ON bookings (user_id, phase, start_booking DESC);
+-- findByItem_Owner_IdAndPhaseIn
+CREATE INDEX idx_bookings_item_phase_start ON bookings (item_id, phase, start_booking DESC);
+-- обход планировщика: findStartingBetween, advancePhaseStartedBefore
+CREATE INDEX idx_bookings_phase_start ON bookings (phase, start_booking);
+-- обход планировщика: findEndingBetween, advancePhaseEndedBefore
+CREATE INDEX idx_bookings_phase_end ON bookings (phase, end_booking);
@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_item_name_trgm ON item USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_item_description_trgm ON item USING gin (lower(description) gin_trgm_ops);
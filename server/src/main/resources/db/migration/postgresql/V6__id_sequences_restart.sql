@@ -0,0 +1,6 @@
+-- Продолжаем последовательности после уже выданных генератором increment идентификаторов.
+SELECT setval('users_seq', COALESCE(MAX(id), 0) + 1, false) FROM users;
+SELECT setval('item_seq', COALESCE(MAX(id), 0) + 1, false) FROM item;
+SELECT setval('bookings_seq', COALESCE(MAX(id), 0) + 1, false) FROM bookings;
+SELECT setval('requests_seq', COALESCE(MAX(id), 0) + 1, false) FROM requests;
+SELECT setval('comments_seq', COALESCE(MAX(id), 0) + 1, false) FROM comments;
@@ -0,0 +1,37 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Старая проверка при подтверждении ловила только вложенные интервалы, поэтому в данных могут быть
+-- пересекающиеся подтвержденные бронирования. Из каждой такой группы остается раньше созданное,
+-- остальные отклоняются, иначе ограничение ниже не создастся и сервер не запустится.
+DO $$
+DECLARE
+    booking RECORD;
+    rejected INT := 0;
+BEGIN
+    FOR booking IN
+        SELECT b.id, b.item_id, b.start_booking, b.end_booking
+        FROM bookings b
+        WHERE b.status = 'APPROVED'
+          AND EXISTS (SELECT 1 FROM bookings o
+                      WHERE o.item_id = b.item_id AND o.status = 'APPROVED' AND o.id < b.id
+                        AND o.start_booking < b.end_booking AND o.end_booking > b.start_booking)
+        ORDER BY b.id
+    LOOP
+        IF EXISTS (SELECT 1 FROM bookings o
+                   WHERE o.item_id = booking.item_id AND o.status = 'APPROVED' AND o.id < booking.id
+                     AND o.start_booking < booking.end_booking AND o.end_booking > booking.start_booking) THEN
+            UPDATE bookings SET status = 'REJECTED', version = version + 1 WHERE id = booking.id;
+            RAISE WARNING 'Бронирование % предмета % пересекается с ранее подтвержденным и отклонено',
+                booking.id, booking.item_id;
+            rejected := rejected + 1;
+        END IF;
+    END LOOP;
+    IF rejected > 0 THEN
+        RAISE WARNING 'Отклонено пересекающихся подтвержденных бронирований: %', rejected;
+    END IF;
+END $$;
+
+-- Два подтвержденных бронирования одного предмета не могут пересекаться по времени.
+ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_booking, end_booking) WITH &&)
+    WHERE (status = 'APPROVED');
@@ -0,0 +1,73 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Два экземпляра сервера над одной базой данных одновременно создают пользователей.
+ * С генератором increment оба экземпляра выдавали бы одинаковые id и падали на первичном ключе.
+ */
+class MultiInstanceIdGenerationTest {
+
+    private static final int USERS_PER_NODE = 200;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 2; i++) {
+            nodes.add(new SpringApplicationBuilder(ShareItServer.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:mem:shareit-nodes;DB_CLOSE_DELAY=-1"));
+        }
+    }
+
+    @AfterEach
+    public void after() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void nodesDoNotCollideOnIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int node = 0; node < nodes.size(); node++) {
+            UserService userService = nodes.get(node).getBean(UserService.class);
+            String prefix = "node" + node;
+            futures.add(executor.submit(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (int i = 0; i < USERS_PER_NODE; i++) {
+                    ids.add(userService.postUser(new UserDto(prefix, prefix + "-" + i + "@mail.ru")).getId());
+                }
+                return ids;
+            }));
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            ids.addAll(future.get());
+        }
+        executor.shutdown();
+
+        JdbcTemplate jdbcTemplate = nodes.get(0).getBean(JdbcTemplate.class);
+        assertEquals(nodes.size() * USERS_PER_NODE, ids.size());
+        assertEquals(nodes.size() * USERS_PER_NODE, jdbcTemplate.queryForObject("select count(*) from users", Integer.class));
+    }
+}
@@ -9,10 +9,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.dto.BookingPage;
+import ru.practicum.shareit.booking.service.BookingExportFormat;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.item.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -130,6 +134,28 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[1].status", is(bookingDto2.getStatus().toString())));
     }
 
+    @Test
+    public void getAllBookingByCursor() throws Exception {
+        int userId = 1;
+        ItemDto itemDto = new ItemDto(1, "item", "description", true);
+        UserDto userDto = new UserDto(1, "Вася", "asdfgh@gmail.com");
+        BookingDto bookingDto = new BookingDto(1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2), itemDto, userDto, BookingStatusEnum.WAITING);
+
+        when(bookingService.getAllBookingsUser(BookingStatusEnum.ALL, userId, "", 1))
+                .thenReturn(new BookingPage(List.of(bookingDto), "next"));
+
+        mvc.perform(get("/bookings")
+                        .param("size", "1")
+                        .param("cursor", "")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(SHARER_USER, userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1), Integer.class));
+    }
+
     @Test
     public void patchApproved() throws Exception {
         boolean approved = true;
@@ -204,4 +230,38 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[1].booker.email", is(userDto.getEmail())))
                 .andExpect(jsonPath("$[1].status", is(bookingDto2.getStatus().toString())));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void exportListAllReservationUser() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(3, OutputStream.class)
+                    .write("id,start\n1,2023-01-01T10:00\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bookingService).exportListAllReservationUser(eq(1), eq(BookingStatusEnum.PAST),
+                eq(BookingExportFormat.CSV), any(OutputStream.class));
+
+        mvc.perform(get("/bookings/owner/export")
+                        .param("state", "PAST")
+                        .param("format", "CSV")
+                        .header(SHARER_USER, 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"owner-bookings.csv\""))
+                .andExpect(content().string("id,start\n1,2023-01-01T10:00\n"));
+    }
+
+    @Test
+    public void exportOfUnknownUserReturnsJsonError() throws Exception {
+        doThrow(new UserNotFoundException("Пользователь с id 99 не найден"))
+                .when(bookingService).exportAllBookingsUser(eq(BookingStatusEnum.ALL), eq(99),
+                        eq(BookingExportFormat.CSV), any(OutputStream.class));
+
+        mvc.perform(get("/bookings/export")
+                        .param("format", "CSV")
+                        .header(SHARER_USER, 99))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("Content-Disposition"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error", is("Пользователь с id 99 не найден")));
+    }
+}
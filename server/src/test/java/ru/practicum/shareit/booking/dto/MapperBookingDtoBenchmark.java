@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.dto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение прежнего маппинга страницы бронирований (stream + повторная сортировка) с текущим.
+ * Запуск: mvn test -Dtest=MapperBookingDtoBenchmark -Dshareit.benchmark=true
+ * Аллокации смотреть в колонке gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBookingDtoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private List<Booking> page;
+
+    @Setup
+    public void setUp() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        Item item = new Item(1, "item", "description", true, user, null);
+        LocalDateTime start = LocalDateTime.now();
+        page = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            page.add(new Booking(size - i, start.minusHours(i), start.minusHours(i - 1), item, user,
+                    BookingStatusEnum.APPROVED));
+        }
+    }
+
+    @Benchmark
+    public List<BookingDto> streamAndSort() {
+        return page.stream()
+                .map(MapperBookingDto::toBookingDto)
+                .sorted(Comparator.comparing(BookingDto::getStart).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BookingDto> presized() {
+        return MapperBookingDto.mappingListBookingByTime(page);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    public void run() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MapperBookingDtoBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.practicum.shareit.booking.dto.MapperBookingDto.mappingListBookingByTime;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byOwner;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingFetchTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("start")));
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        owner = entityManager.persist(new User("Вася", "asdfgh@gmail.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            User booker = entityManager.persist(new User("user" + i, "user" + i + "@mail.ru"));
+            Item item = entityManager.persist(new Item("item" + i, "description" + i, true, owner));
+            Booking booking = new Booking(start.plusHours(i), start.plusHours(i + 1));
+            booking.setItem(item);
+            booking.setBooker(booker);
+            booking.setStatus(BookingStatusEnum.WAITING);
+            entityManager.persist(booking);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void bookerPageIsLoadedWithOneStatement() {
+        int bookerId = bookingRepository.findAll().get(0).getBooker().getId();
+        entityManager.clear();
+
+        assertOneStatement(() -> bookingRepository.findByBookerId(bookerId, pageable), 1);
+    }
+
+    @Test
+    public void ownerPageIsLoadedWithOneStatement() {
+        assertOneStatement(() -> bookingRepository.findAllBookingByOwnerId(owner.getId(), pageable), 5);
+        assertOneStatement(() -> bookingRepository.findByItem_Owner_IdAndStatus(owner.getId(),
+                BookingStatusEnum.WAITING, pageable), 5);
+        assertOneStatement(() -> bookingRepository.findPage(byOwner(owner.getId()), 10), 5);
+    }
+
+    private void assertOneStatement(Supplier<List<Booking>> page, int expectedSize) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<BookingDto> bookings = mappingListBookingByTime(page.get());
+
+        assertEquals(expectedSize, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byBooker;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.byOwner;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.withStatus;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.repository.BookingQueryPlanTest$SqlRecorder")
+class BookingQueryPlanTest {
+
+    private static final int USERS = 50;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS = 5_000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("start")));
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    public void before() {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "user" + i, "user" + i + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            items.add(new Object[]{i, "item" + i, "description" + i, true, i % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into item (id, name, description, is_available, owner_id) values (?, ?, ?, ?, ?)", items);
+
+        List<Object[]> bookings = new ArrayList<>();
+        BookingStatusEnum[] statuses = BookingStatusEnum.values();
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDateTime start = now.plusHours(i - BOOKINGS / 2);
+            bookings.add(new Object[]{i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)),
+                    i % ITEMS + 1, i % USERS + 1, statuses[i % statuses.length].name()});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_booking, end_booking, item_id, user_id, status) "
+                + "values (?, ?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.execute("analyze");
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    public void bookingQueriesUseIndexes() {
+        bookingRepository.findByStatusAndBookerId(BookingStatusEnum.WAITING, 1, pageable);
+        bookingRepository.findByBookerId(1, pageable);
+        bookingRepository.findAllBookingByOwnerId(1, pageable);
+        bookingRepository.findByItem_Owner_IdAndStatus(1, BookingStatusEnum.WAITING, pageable);
+        bookingRepository.findByEndIsBeforeAndBookerId(now, 1, pageable);
+        bookingRepository.findByItem_Owner_IdAndEndIsBefore(1, now, pageable);
+        bookingRepository.findByStartIsAfterAndBookerId(now, 1, pageable);
+        bookingRepository.findByItem_Owner_IdAndEndIsAfter(1, now, pageable);
+        bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(1, now, now, pageable);
+        bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(1, now, now, pageable);
+        bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(1, now, now);
+        bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(1, BookingStatusEnum.APPROVED,
+                now, now, 0);
+        bookingRepository.findLastBookingByOwnerId(1, 1, BookingStatusEnum.REJECTED, now);
+        bookingRepository.findNextBookingByOwnerId(1, 1, BookingStatusEnum.REJECTED, now);
+        bookingRepository.existsByBookerIdAndItem_IdAndStatusAndEndBefore(1, 1, BookingStatusEnum.APPROVED, now);
+        bookingRepository.findBookingsByItemIds(List.of(1, 2, 3));
+        bookingRepository.findLastAndNextByItemIds(List.of(1, 2, 3), now);
+        bookingRepository.findPage(byBooker(1).and(after(new BookingCursor(now, 100))), 10);
+        bookingRepository.findPage(byOwner(1).and(withStatus(BookingStatusEnum.WAITING)), 10);
+
+        assertFalse(SqlRecorder.STATEMENTS.isEmpty());
+        List<String> scans = new ArrayList<>();
+        for (String sql : SqlRecorder.STATEMENTS) {
+            String plan = explain(sql);
+            assertTrue(plan.contains("BOOKINGS"), plan);
+            if (plan.toLowerCase(Locale.ROOT).contains("tablescan")) {
+                scans.add(plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), String.join("\n\n", scans));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, null);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase(Locale.ROOT).contains("bookings")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
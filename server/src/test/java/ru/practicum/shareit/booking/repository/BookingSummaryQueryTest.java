@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingSummary;
+import ru.practicum.shareit.booking.dto.BookingSummaryRow;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingSummaryMode;
+import ru.practicum.shareit.booking.service.BookingSummaryService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class BookingSummaryQueryTest {
+
+    private static final int HISTORY = 10_000;
+    private static final List<Integer> ITEMS = List.of(1, 2, 3);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private final List<Object[]> bookings = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru'), "
+                + "(2, 'booker', 'booker@mail.ru')");
+        for (int id : ITEMS) {
+            jdbcTemplate.update("insert into item (id, name, description, is_available, owner_id) values (?, ?, ?, true, 1)",
+                    id, "item" + id, "description" + id);
+        }
+
+        for (int i = 1; i <= HISTORY; i++) {
+            booking(1, now.minusHours(i + 1L), BookingStatusEnum.APPROVED);
+        }
+        booking(1, now.plusHours(5), BookingStatusEnum.WAITING);
+        booking(1, now.plusHours(2), BookingStatusEnum.APPROVED);
+        booking(2, now.minusHours(3), BookingStatusEnum.APPROVED);
+        booking(2, now.minusHours(1), BookingStatusEnum.REJECTED);
+        booking(2, now.plusHours(1), BookingStatusEnum.REJECTED);
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_booking, end_booking, item_id, user_id, status) "
+                + "values (?, ?, ?, ?, 2, ?)", bookings);
+    }
+
+    @Test
+    public void lastAndNextWithoutLoadingHistory() {
+        List<BookingSummaryRow> rows = bookingRepository.findLastAndNextByItemIds(ITEMS, now);
+
+        assertTrue(rows.size() <= 2 * ITEMS.size());
+
+        Map<Integer, BookingSummary> summaries = summaryService(BookingSummaryMode.QUERY).summaries(ITEMS, now);
+
+        assertEquals(now.minusHours(2), summaries.get(1).getLastBooking().getStart());
+        assertEquals(now.plusHours(2), summaries.get(1).getNextBooking().getStart());
+        assertEquals(2, summaries.get(1).getNextBooking().getBookerId());
+        assertEquals(now.minusHours(3), summaries.get(2).getLastBooking().getStart());
+        assertNull(summaries.get(2).getNextBooking());
+        assertNull(summaries.get(3));
+    }
+
+    @Test
+    public void queryAndIndexAgree() {
+        Map<Integer, BookingSummary> query = summaryService(BookingSummaryMode.QUERY).summaries(ITEMS, now);
+        Map<Integer, BookingSummary> index = summaryService(BookingSummaryMode.INDEX).summaries(ITEMS, now);
+
+        for (int id : ITEMS) {
+            BookingSummary expected = index.get(id);
+            BookingSummary actual = query.getOrDefault(id, new BookingSummary());
+            assertEquals(expected.getLastBooking(), actual.getLastBooking());
+            assertEquals(expected.getNextBooking(), actual.getNextBooking());
+        }
+    }
+
+    private BookingSummaryService summaryService(BookingSummaryMode mode) {
+        BookingIntervalIndex bookingIndex = new BookingIntervalIndex(bookingRepository, true, false);
+        bookingIndex.warmUp();
+        return new BookingSummaryService(bookingRepository, bookingIndex, mode);
+    }
+
+    private void booking(int itemId, LocalDateTime start, BookingStatusEnum status) {
+        bookings.add(new Object[]{bookings.size() + 1, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                itemId, status.name()});
+    }
+}
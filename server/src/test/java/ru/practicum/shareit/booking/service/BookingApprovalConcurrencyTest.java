@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.exception.BookingConflictException;
+import ru.practicum.shareit.exception.BookingNotFoundException;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Владелец одновременно подтверждает много бронирований одного предмета.
+ * Подтвержденные бронирования не должны пересекаться, а каждый запрос — завершаться успехом, 404 или 409.
+ * В пределах одного экземпляра подтверждения предмета идут под его блокировкой и не конфликтуют между собой.
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingApprovalConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS = 64;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int ownerId;
+    private int itemId;
+    private int bookerId;
+
+    @BeforeEach
+    public void before() {
+        ownerId = userService.postUser(new UserDto("Вася", "owner@mail.ru")).getId();
+        bookerId = userService.postUser(new UserDto("Игорь", "booker@mail.ru")).getId();
+        itemId = itemService.postItem(new ItemDto("item", "description", true), ownerId).getId();
+    }
+
+    @Test
+    public void overlappingApprovalsNeverDoubleBook() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Integer> bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingIds.add(bookingService.postBookings(bookerId,
+                    new BookingDtoJson(itemId, start.plusMinutes(i), start.plusMinutes(i).plusHours(2))).getId());
+        }
+
+        Outcome outcome = approveConcurrently(bookingIds);
+
+        assertEquals(1, outcome.approved.get());
+        assertEquals(BOOKINGS, outcome.approved.get() + outcome.busy.get() + outcome.conflicts.get());
+        assertEquals(0, overlappingApprovedPairs());
+        log.info("Пересекающиеся бронирования: {} запросов за {} мс, подтверждено {}, занято {}, конфликтов {}.",
+                BOOKINGS, outcome.millis, outcome.approved, outcome.busy, outcome.conflicts);
+    }
+
+    @Test
+    public void disjointApprovalsUnderContention() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Integer> bookingIds = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingIds.add(bookingService.postBookings(bookerId,
+                    new BookingDtoJson(itemId, start.plusHours(i), start.plusHours(i).plusMinutes(30))).getId());
+        }
+
+        Outcome outcome = approveConcurrently(bookingIds);
+
+        assertEquals(0, outcome.busy.get());
+        assertEquals(0, outcome.conflicts.get());
+        assertEquals(BOOKINGS, outcome.approved.get());
+        assertEquals(BOOKINGS, jdbcTemplate.queryForObject(
+                "select count(*) from bookings where status = 'APPROVED'", Integer.class));
+        log.info("Непересекающиеся бронирования: {} запросов за {} мс ({} в секунду), подтверждено {}, конфликтов {}.",
+                BOOKINGS, outcome.millis, BOOKINGS * 1000L / Math.max(1, outcome.millis), outcome.approved,
+                outcome.conflicts);
+    }
+
+    private Outcome approveConcurrently(List<Integer> bookingIds) throws Exception {
+        Outcome outcome = new Outcome();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.patchApproved(true, bookingId, ownerId);
+                    outcome.approved.incrementAndGet();
+                } catch (BookingNotFoundException e) {
+                    outcome.busy.incrementAndGet();
+                } catch (BookingConflictException e) {
+                    outcome.conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        outcome.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        executor.shutdown();
+        return outcome;
+    }
+
+    private int overlappingApprovedPairs() {
+        return jdbcTemplate.queryForObject("select count(*) from bookings a join bookings b " +
+                "on a.item_id = b.item_id and a.id < b.id " +
+                "and a.start_booking < b.end_booking and b.start_booking < a.end_booking " +
+                "where a.status = 'APPROVED' and b.status = 'APPROVED'", Integer.class);
+    }
+
+    private static class Outcome {
+        private final AtomicInteger approved = new AtomicInteger();
+        private final AtomicInteger busy = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private long millis;
+    }
+}
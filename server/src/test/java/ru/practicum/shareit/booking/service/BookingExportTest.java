@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.booking.export.fetch-size=100")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingExportTest {
+
+    private static final int ITEMS = 3;
+    private static final int BOOKINGS_PER_ITEM = 400;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private int ownerId;
+    private int bookerId;
+
+    @BeforeEach
+    public void before() {
+        ownerId = userService.postUser(new UserDto("Вася", "owner@mail.ru")).getId();
+        bookerId = userService.postUser(new UserDto("Игорь \"Ключ\", младший", "booker@mail.ru")).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int item = 0; item < ITEMS; item++) {
+            int itemId = itemService.postItem(new ItemDto("дрель, ударная " + item, "description", true), ownerId).getId();
+            List<BookingDtoJson> batch = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                batch.add(new BookingDtoJson(itemId, start.plusHours(i), start.plusHours(i).plusMinutes(30)));
+            }
+            bookingService.postBookings(bookerId, batch);
+        }
+    }
+
+    @Test
+    public void ownerExportStreamsWholeHistoryAsNdjson() throws Exception {
+        String[] lines = export(out -> bookingService.exportListAllReservationUser(ownerId, BookingStatusEnum.FUTURE,
+                BookingExportFormat.NDJSON, out)).split("\n");
+
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM, lines.length);
+        LocalDateTime previous = null;
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertEquals(bookerId, row.get("bookerId").asInt());
+            assertEquals("WAITING", row.get("status").asText());
+            LocalDateTime start = LocalDateTime.parse(row.get("start").asText());
+            assertTrue(previous == null || !start.isAfter(previous));
+            previous = start;
+        }
+    }
+
+    @Test
+    public void bookerExportAsCsvEscapesFields() throws Exception {
+        String[] lines = export(out -> bookingService.exportAllBookingsUser(BookingStatusEnum.WAITING, bookerId,
+                BookingExportFormat.CSV, out)).split("\n");
+
+        assertEquals(ITEMS * BOOKINGS_PER_ITEM + 1, lines.length);
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName", lines[0]);
+        assertTrue(lines[1].endsWith(",\"Игорь \"\"Ключ\"\", младший\""));
+        assertTrue(lines[1].contains(",WAITING,"));
+        assertTrue(lines[1].contains(",\"дрель, ударная "));
+    }
+
+    @Test
+    public void exportFiltersByState() throws Exception {
+        assertEquals("id,start,end,status,itemId,itemName,bookerId,bookerName\n",
+                export(out -> bookingService.exportAllBookingsUser(BookingStatusEnum.REJECTED, bookerId,
+                        BookingExportFormat.CSV, out)));
+        assertEquals("", export(out -> bookingService.exportListAllReservationUser(ownerId, BookingStatusEnum.PAST,
+                BookingExportFormat.NDJSON, out)));
+    }
+
+    @Test
+    public void exportOfUnknownUserFailsBeforeStreaming() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(UserNotFoundException.class, () -> bookingService.exportAllBookingsUser(BookingStatusEnum.ALL,
+                999, BookingExportFormat.NDJSON, out));
+        assertEquals(0, out.size());
+    }
+
+    private static String export(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Export {
+        void writeTo(OutputStream out) throws Exception;
+    }
+}
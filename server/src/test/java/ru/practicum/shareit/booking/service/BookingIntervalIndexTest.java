@@ -0,0 +1,184 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.booking.BookingStatusEnum.APPROVED;
+import static ru.practicum.shareit.booking.BookingStatusEnum.REJECTED;
+import static ru.practicum.shareit.booking.BookingStatusEnum.WAITING;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingIntervalIndex bookingIndex;
+    private LocalDateTime time;
+    private Item item;
+    private User user;
+
+    @BeforeEach
+    public void before() {
+        bookingIndex = new BookingIntervalIndex(bookingRepository, true, false);
+        time = LocalDateTime.now().plusDays(1);
+        user = new User(1, "Вася", "asdfgh@gmail.com");
+        item = new Item("item", "description", true, user);
+        item.setId(1);
+    }
+
+    @Test
+    public void warmUpFromRepository() {
+        when(bookingRepository.findIntervalsByStatusIn(anyList()))
+                .thenReturn(List.of(new BookingInterval(1, 1, 2, time, time.plusHours(2), APPROVED)));
+
+        bookingIndex.warmUp();
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.plusHours(1), time.plusHours(3), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(2, time.plusHours(1), time.plusHours(3), 0));
+    }
+
+    @Test
+    public void onlyApprovedBookingsConflict() {
+        bookingIndex.update(new Booking(1, time, time.plusHours(2), item, user, WAITING));
+
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time, time.plusHours(1), 0));
+
+        bookingIndex.update(new Booking(1, time, time.plusHours(2), item, user, APPROVED));
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time, time.plusHours(1), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time, time.plusHours(1), 1));
+    }
+
+    @Test
+    public void adjacentIntervalsDoNotConflict() {
+        bookingIndex.update(new Booking(1, time, time.plusHours(2), item, user, APPROVED));
+
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(2), time.plusHours(3), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.minusHours(1), time, 0));
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.minusHours(1), time.plusMinutes(1), 0));
+    }
+
+    @Test
+    public void overlapIsFoundAmongLongHistory() {
+        for (int i = 0; i < 1000; i++) {
+            bookingIndex.update(new Booking(i + 1, time.plusHours(2L * i), time.plusHours(2L * i + 1), item, user,
+                    i % 2 == 0 ? APPROVED : WAITING));
+        }
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.plusHours(1000).plusMinutes(30), time.plusHours(1001), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(1002).plusMinutes(30), time.plusHours(1003), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(1000).plusMinutes(30), time.plusHours(1001), 501));
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.minusHours(1), time.plusHours(5000), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(1001), time.plusHours(1002), 0));
+    }
+
+    @Test
+    public void overlappingApprovedBookingsFromWarmUpAreStillChecked() {
+        when(bookingRepository.findIntervalsByStatusIn(anyList())).thenReturn(List.of(
+                new BookingInterval(1, 1, 2, time, time.plusHours(4), APPROVED),
+                new BookingInterval(2, 1, 2, time.plusHours(1), time.plusHours(2), APPROVED)));
+
+        bookingIndex.warmUp();
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.plusHours(3), time.plusHours(5), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(3), time.plusHours(5), 1));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(4), time.plusHours(5), 0));
+
+        bookingIndex.update(new Booking(2, time.plusHours(1), time.plusHours(2), item, user, REJECTED));
+        bookingIndex.update(new Booking(3, time.plusHours(5), time.plusHours(6), item, user, APPROVED));
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, time.plusHours(3), time.plusHours(5), 0));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time.plusHours(4), time.plusHours(5), 0));
+    }
+
+    @Test
+    public void rejectedBookingLeavesCalendar() {
+        bookingIndex.update(new Booking(1, time, time.plusHours(2), item, user, APPROVED));
+        bookingIndex.update(new Booking(1, time, time.plusHours(2), item, user, REJECTED));
+
+        assertFalse(bookingIndex.hasApprovedOverlap(1, time, time.plusHours(1), 0));
+    }
+
+    @Test
+    public void lastAndNextAroundMoment() {
+        bookingIndex.update(new Booking(1, time.minusHours(3), time.minusHours(2), item, user, APPROVED));
+        bookingIndex.update(new Booking(2, time, time.plusHours(1), item, user, WAITING));
+        bookingIndex.update(new Booking(3, time.plusHours(2), time.plusHours(3), item, user, APPROVED));
+
+        assertEquals(1, bookingIndex.lastBooking(1, time).getId());
+        assertEquals(3, bookingIndex.nextBooking(1, time).getId());
+        assertEquals(2, bookingIndex.lastBooking(1, time.plusMinutes(1)).getId());
+        assertNull(bookingIndex.nextBooking(1, time.plusHours(2)));
+        assertNull(bookingIndex.lastBooking(2, time));
+    }
+
+    @Test
+    public void endedBookingsAreDroppedExceptLast() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingIndex.update(new Booking(1, now.minusHours(5), now.minusHours(4), item, user, APPROVED));
+        bookingIndex.update(new Booking(2, now.minusHours(3), now.minusHours(2), item, user, APPROVED));
+        bookingIndex.update(new Booking(3, now.plusHours(1), now.plusHours(2), item, user, WAITING));
+
+        assertEquals(2, bookingIndex.lastBooking(1, now).getId());
+        assertEquals(3, bookingIndex.nextBooking(1, now).getId());
+        assertNull(bookingIndex.lastBooking(1, now.minusHours(4)));
+        assertFalse(bookingIndex.hasApprovedOverlap(1, now.plusHours(1), now.plusHours(2), 0));
+    }
+
+    @Test
+    public void checkBeforeDroppedBookingsGoesToDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingIndex.update(new Booking(1, now.minusHours(5), now.minusHours(4), item, user, APPROVED));
+        bookingIndex.update(new Booking(2, now.minusHours(3), now.minusHours(2), item, user, APPROVED));
+        when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(eq(1), eq(APPROVED),
+                any(), any(), anyInt())).thenReturn(true);
+
+        assertTrue(bookingIndex.hasApprovedOverlap(1, now.minusHours(5), now.minusHours(3), 0));
+    }
+
+    @Test
+    public void disabledIndexAsksDatabaseEveryTime() {
+        BookingIntervalIndex disabledIndex = new BookingIntervalIndex(bookingRepository, false, false);
+        disabledIndex.warmUp();
+        disabledIndex.update(new Booking(1, time, time.plusHours(2), item, user, APPROVED));
+        when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(eq(1), eq(APPROVED),
+                any(), any(), anyInt())).thenReturn(false);
+
+        assertFalse(disabledIndex.enabled());
+        assertFalse(disabledIndex.hasApprovedOverlap(1, time, time.plusHours(1), 0));
+        assertNull(disabledIndex.nextBooking(1, LocalDateTime.now()));
+        verify(bookingRepository, never()).findIntervalsByStatusIn(anyList());
+    }
+
+    @Test
+    public void verifyModePrefersDatabase() {
+        BookingIntervalIndex verifyingIndex = new BookingIntervalIndex(bookingRepository, true, true);
+        when(bookingRepository.existsByItem_IdAndStatusAndStartBeforeAndEndAfterAndIdNot(eq(1), eq(APPROVED),
+                any(), any(), anyInt())).thenReturn(true);
+
+        assertTrue(verifyingIndex.hasApprovedOverlap(1, time, time.plusHours(1), 0));
+    }
+}
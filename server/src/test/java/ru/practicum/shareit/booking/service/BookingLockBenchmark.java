@@ -0,0 +1,112 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность создания и подтверждения бронирований на смеси предметов при росте числа потоков.
+ * stripes=0 — таблица блокировок по числу ядер, stripes=1 — одна общая блокировка для сравнения.
+ * Запуск: mvn test -Dtest=BookingLockBenchmark -Dshareit.benchmark=true -Dshareit.benchmark.threads=1,2,4,8,16,32
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class BookingLockBenchmark {
+
+    private static final int ITEMS = 256;
+
+    @Param({"0", "1"})
+    private int stripes;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private int[] itemIds;
+    private int ownerId;
+    private int bookerId;
+    private LocalDateTime base;
+    private final AtomicLong slot = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:shareit-locks;DB_CLOSE_DELAY=-1",
+                        "--shareit.booking.index.verify=false",
+                        "--shareit.booking.lock.stripes=" + stripes,
+                        "--logging.level.root=WARN");
+        bookingService = context.getBean(BookingService.class);
+        UserService userService = context.getBean(UserService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+
+        ownerId = userService.postUser(new UserDto("Вася", "owner@mail.ru")).getId();
+        bookerId = userService.postUser(new UserDto("Игорь", "booker@mail.ru")).getId();
+        itemIds = new int[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds[i] = itemService.postItem(new ItemDto("item" + i, "description", true), ownerId).getId();
+        }
+        base = LocalDateTime.now().plusDays(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object bookAndApprove() {
+        LocalDateTime start = base.plusHours(slot.getAndIncrement());
+        int itemId = itemIds[ThreadLocalRandom.current().nextInt(ITEMS)];
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, start.plusMinutes(30))).getId();
+        return bookingService.patchApproved(true, bookingId, ownerId);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    public void run() throws Exception {
+        for (String threads : System.getProperty("shareit.benchmark.threads", "1,2,4,8,16,32").split(",")) {
+            for (RunResult result : new Runner(new OptionsBuilder()
+                    .include(BookingLockBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threads.trim()))
+                    .build())
+                    .run()) {
+                log.info("Потоков {}, stripes={}: {} операций в секунду.", threads.trim(),
+                        result.getParams().getParam("stripes"), Math.round(result.getPrimaryResult().getScore()));
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.BookingStatusEnum;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Списки по этапам должны совпадать со списками по времени за пределами миллисекундной окрестности
+ * моментов начала и окончания бронирований.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingPhaseSchedulerTest {
+
+    private static final long MARGIN_MILLIS = 300;
+    private static final Pageable ALL = PageRequest.of(0, 100);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingPhaseScheduler phases;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int ownerId;
+    private int bookerId;
+
+    @BeforeEach
+    public void before() {
+        ownerId = userService.postUser(new UserDto("Вася", "owner@mail.ru")).getId();
+        bookerId = userService.postUser(new UserDto("Игорь", "booker@mail.ru")).getId();
+    }
+
+    @Test
+    public void phaseListsMatchTimeListsAroundBoundaries() throws Exception {
+        assertTrue(phases.enabled());
+        LocalDateTime start = LocalDateTime.now().plusSeconds(2).truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime end = start.plusSeconds(2);
+        for (int i = 0; i < 4; i++) {
+            int itemId = itemService.postItem(new ItemDto("item" + i, "description", true), ownerId).getId();
+            bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, end));
+        }
+        int longerItemId = itemService.postItem(new ItemDto("longer", "description", true), ownerId).getId();
+        bookingService.postBookings(bookerId, new BookingDtoJson(longerItemId, start, end.plusHours(1)));
+
+        for (LocalDateTime moment : List.of(start.minusNanos(MARGIN_MILLIS * 1_000_000),
+                start.plusNanos(MARGIN_MILLIS * 1_000_000),
+                end.minusNanos(MARGIN_MILLIS * 1_000_000),
+                end.plusNanos(MARGIN_MILLIS * 1_000_000))) {
+            sleepUntil(moment);
+            assertListsMatch();
+        }
+        assertEquals(4, bookingService.getAllBookingsUser(BookingStatusEnum.PAST, bookerId, 0, 10).size());
+        assertEquals(1, bookingService.getAllBookingsUser(BookingStatusEnum.CURRENT, bookerId, 0, 10).size());
+    }
+
+    @Test
+    public void newBookingIsScheduledFromOutboxEvent() throws Exception {
+        int itemId = itemService.postItem(new ItemDto("item", "description", true), ownerId).getId();
+        LocalDateTime start = LocalDateTime.now().plusSeconds(1);
+        LocalDateTime end = start.plusSeconds(1);
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, end)).getId();
+
+        sleepUntil(end.plusNanos(MARGIN_MILLIS * 1_000_000));
+
+        assertEquals("FINISHED", phase(bookingId));
+    }
+
+    @Test
+    public void sweepCatchesUpMissedTransitions() {
+        int itemId = itemService.postItem(new ItemDto("item", "description", true), ownerId).getId();
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId,
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2))).getId();
+        jdbcTemplate.update("update bookings set start_booking = ?, end_booking = ? where id = ?",
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), bookingId);
+        assertEquals("UPCOMING", phase(bookingId));
+
+        phases.sweep();
+
+        assertEquals("FINISHED", phase(bookingId));
+        assertEquals(List.of(bookingId), ids(bookingService.getAllBookingsUser(BookingStatusEnum.PAST, bookerId, 0, 10)));
+    }
+
+    private void assertListsMatch() {
+        assertSameIds(now -> bookingRepository.findByEndIsBeforeAndBookerId(now, bookerId, ALL),
+                () -> bookingService.getAllBookingsUser(BookingStatusEnum.PAST, bookerId, 0, 100));
+        assertSameIds(now -> bookingRepository.findByStartIsAfterAndBookerId(now, bookerId, ALL),
+                () -> bookingService.getAllBookingsUser(BookingStatusEnum.FUTURE, bookerId, 0, 100));
+        assertSameIds(now -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, ALL),
+                () -> bookingService.getAllBookingsUser(BookingStatusEnum.CURRENT, bookerId, 0, 100));
+
+        assertSameIds(now -> bookingRepository.findByItem_Owner_IdAndEndIsBefore(ownerId, now, ALL),
+                () -> bookingService.getListAllReservationUser(ownerId, BookingStatusEnum.PAST, 0, 100));
+        assertSameIds(now -> bookingRepository.findByItem_Owner_IdAndEndIsAfter(ownerId, now, ALL),
+                () -> bookingService.getListAllReservationUser(ownerId, BookingStatusEnum.FUTURE, 0, 100));
+        assertSameIds(now -> bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(ownerId, now, now, ALL),
+                () -> bookingService.getListAllReservationUser(ownerId, BookingStatusEnum.CURRENT, 0, 100));
+        assertSameIds(now -> bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, ALL),
+                () -> bookingService.getAllBookingsUser(BookingStatusEnum.CURRENT, bookerId, null, 100).getBookings());
+    }
+
+    /**
+     * Момент берется заново для каждой пары списков: весь набор проверок на одном ядре может идти дольше окрестности.
+     */
+    private static void assertSameIds(Function<LocalDateTime, List<Booking>> byTime, Supplier<List<BookingDto>> byPhase) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Integer> phaseIds = Set.copyOf(ids(byPhase.get()));
+        assertEquals(idsOf(byTime.apply(now)), phaseIds);
+    }
+
+    private String phase(int bookingId) {
+        return jdbcTemplate.queryForObject("select phase from bookings where id = ?", String.class, bookingId);
+    }
+
+    private static void sleepUntil(LocalDateTime moment) throws InterruptedException {
+        long millis = ChronoUnit.MILLIS.between(LocalDateTime.now(), moment);
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static List<Integer> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+    }
+
+    private static Set<Integer> idsOf(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+    }
+}
@@ -10,16 +10,21 @@ import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.BookingStatusEnum;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.dto.BookingPage;
 import ru.practicum.shareit.item.dto.item.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static ru.practicum.shareit.booking.BookingStatusEnum.ALL;
 import static ru.practicum.shareit.booking.BookingStatusEnum.APPROVED;
 
@@ -122,4 +127,32 @@ class BookingServiceImplIntegrationTest {
         assertEquals(1, bookingDtoList.size());
         assertEquals(APPROVED, bookingDtoList.get(0).getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getBookingsByCursor() {
+        userService.postUser(user);
+        userService.postUser(user2);
+        itemService.postItem(item, 1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            bookingService.postBookings(2, new BookingDtoJson(1, start.plusHours(i), start.plusHours(i + 1)));
+        }
+
+        assertEquals(List.of(5, 4, 3, 2, 1), walk(cursor -> bookingService.getAllBookingsUser(ALL, 2, cursor, 2)));
+        assertEquals(List.of(5, 4, 3, 2, 1), walk(cursor -> bookingService.getListAllReservationUser(1, ALL, cursor, 2)));
+    }
+
+    private List<Integer> walk(Function<String, BookingPage> pages) {
+        List<Integer> ids = new ArrayList<>();
+        BookingPage page = pages.apply(null);
+        while (true) {
+            ids.addAll(page.getBookings().stream().map(BookingDto::getId).collect(Collectors.toList()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = pages.apply(page.getNextCursor());
+        }
+        assertNull(page.getNextCursor());
+        return ids;
+    }
+}
@@ -1,11 +1,17 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.dto.BookingBatchResult;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoJson;
 import ru.practicum.shareit.booking.model.Booking;
@@ -14,16 +20,24 @@ import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.dto.item.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.BookingOutbox;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static ru.practicum.shareit.booking.BookingStatusEnum.*;
 
@@ -38,10 +52,27 @@ class BookingServiceImplTest {
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private BookingOutbox bookingOutbox;
+    @Mock
+    private BookingExporter exporter;
+
+    private BookingIntervalIndex bookingIndex;
 
     @BeforeEach
     public void before() {
-        bookingService = new BookingServiceImpl(bookingRepository, itemRepository, userRepository);
+        bookingIndex = new BookingIntervalIndex(bookingRepository, true, false);
+        bookingService = bookingService(BookingStateMode.TIME);
+    }
+
+    private BookingService bookingService(BookingStateMode mode) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        return new BookingServiceImpl(bookingRepository, itemRepository, userRepository, bookingIndex,
+                new UserExistenceService(userRepository, true), transactionTemplate, new ItemLockTable(4), bookingOutbox,
+                new BookingPhaseScheduler(bookingRepository, transactionTemplate, new SimpleMeterRegistry(), mode,
+                        Duration.ofMinutes(10), Set.of()), exporter);
     }
 
     @Test
@@ -84,6 +115,21 @@ class BookingServiceImplTest {
         });
     }
 
+    @Test
+    public void postBookingBusy() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        item.setId(1);
+        BookingDtoJson bookingDtoJson = new BookingDtoJson(1, 1, LocalDateTime.now().plusMinutes(12), LocalDateTime.now().plusHours(1));
+        bookingIndex.update(new Booking(2, bookingDtoJson.getStart(), bookingDtoJson.getEnd(), item, user, APPROVED));
+
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+
+        assertThrows(BookingNotFoundException.class, () -> {
+            bookingService.postBookings(2, bookingDtoJson);
+        });
+    }
+
     @Test
     public void postBookingNotUser() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
@@ -165,7 +211,7 @@ class BookingServiceImplTest {
 
     @Test
     public void getAllBookingsNotUser() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
         assertThrows(UserNotFoundException.class, () -> {
             bookingService.getAllBookingsUser(WAITING, 1, 0, 2);
         });
@@ -177,7 +223,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByBookerId(anyInt(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getAllBookingsUser(ALL, 1, 0, 1);
@@ -192,7 +238,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByEndIsBeforeAndBookerId(any(), anyInt(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getAllBookingsUser(PAST, 1, 0, 1);
@@ -207,7 +253,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByStartIsAfterAndBookerId(any(), anyInt(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getAllBookingsUser(FUTURE, 1, 0, 1);
@@ -222,7 +268,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(anyInt(), any(), any(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getAllBookingsUser(CURRENT, 1, 0, 1);
@@ -231,13 +277,28 @@ class BookingServiceImplTest {
         assertEquals("item", bookingDto.get(0).getItem().getName());
     }
 
+    @Test
+    public void getAllBookingStatusCurrentByPhase() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        Booking booking = new Booking(1, LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1), item, user, APPROVED);
+
+        when(userRepository.existsById(anyInt())).thenReturn(true);
+        when(bookingRepository.findByBookerIdAndPhase(eq(1), eq(BookingPhase.ACTIVE), any(Pageable.class))).thenReturn(List.of(booking));
+
+        List<BookingDto> bookingDto = bookingService(BookingStateMode.PHASE).getAllBookingsUser(CURRENT, 1, 0, 1);
+
+        assertEquals(1, bookingDto.size());
+        verify(bookingRepository, times(0)).findByBookerIdAndStartBeforeAndEndAfter(anyInt(), any(), any(), any(Pageable.class));
+    }
+
     @Test
     public void getAllBookingStatusWating() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByStatusAndBookerId(eq(WAITING), anyInt(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getAllBookingsUser(WAITING, 1, 0, 1);
@@ -249,7 +310,7 @@ class BookingServiceImplTest {
     @Test
     public void getAllBookingStatusUnsupported() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
 
         assertThrows(BookingBadRequest.class, () -> {
             bookingService.getAllBookingsUser(UNSUPPORTED_STATUS, 1, 0, 1);
@@ -258,7 +319,7 @@ class BookingServiceImplTest {
 
     @Test
     public void patchApprovedFailBooking() {
-        when(bookingRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.empty());
         assertThrows(BookingNotFoundException.class, () -> {
            bookingService.patchApproved(true, 1, 1);
         });
@@ -270,6 +331,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
 
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
         assertThrows(BookingBadRequest.class, () -> {
             bookingService.patchApproved(true, 1, 1);
@@ -283,8 +345,10 @@ class BookingServiceImplTest {
         item.setId(1);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
+        bookingIndex.update(new Booking(2, booking.getStart(), booking.getEnd(), item, user, APPROVED));
+
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
-        when(bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(eq(1), any(), any())).thenReturn(true);
 
         assertThrows(BookingNotFoundException.class, () -> {
             bookingService.patchApproved(true, 1, 1);
@@ -298,8 +362,8 @@ class BookingServiceImplTest {
         item.setId(1);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
-        when(bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(eq(1), any(), any())).thenReturn(false);
 
         assertThrows(BookingNotFoundException.class, () -> {
             bookingService.patchApproved(true, 1, 2);
@@ -313,8 +377,8 @@ class BookingServiceImplTest {
         item.setId(1);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
-        when(bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(eq(1), any(), any())).thenReturn(false);
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto bookingDto = bookingService.patchApproved(true, 1, 1);
@@ -323,6 +387,24 @@ class BookingServiceImplTest {
         assertEquals(APPROVED, bookingDto.getStatus());
     }
 
+    @Test
+    public void patchApprovedConflict() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        item.setId(1);
+        LocalDateTime start = LocalDateTime.now().plusHours(2);
+
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
+        when(bookingRepository.findById(anyInt()))
+                .thenAnswer(invocationOnMock -> Optional.of(new Booking(1, start, start.plusHours(1), item, user, WAITING)));
+        when(bookingRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1));
+
+        assertThrows(BookingConflictException.class, () -> {
+            bookingService.patchApproved(true, 1, 1);
+        });
+        verify(bookingRepository, times(3)).save(any());
+    }
+
     @Test
     public void patchApprovedFalse() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
@@ -330,8 +412,8 @@ class BookingServiceImplTest {
         item.setId(1);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
+        when(bookingRepository.findItemIdById(anyInt())).thenReturn(Optional.of(item.getId()));
         when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
-        when(bookingRepository.existsByItem_IdAndStartBeforeAndEndAfter(eq(1), any(), any())).thenReturn(false);
         when(bookingRepository.save(any())).thenReturn(booking);
 
         BookingDto bookingDto = bookingService.patchApproved(false, 1, 1);
@@ -349,7 +431,7 @@ class BookingServiceImplTest {
 
     @Test
     public void getListAllReservationUserNotUser() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
         assertThrows(UserNotFoundException.class, () -> {
             bookingService.getListAllReservationUser(1, WAITING, 0, 2);
         });
@@ -361,7 +443,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(1), LocalDateTime.now().plusHours(2), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findAllBookingByOwnerId(anyInt(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getListAllReservationUser(1, ALL, 0, 1);
@@ -376,7 +458,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().minusHours(2), LocalDateTime.now().minusHours(1), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByItem_Owner_IdAndEndIsBefore(anyInt(), any(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getListAllReservationUser(1, PAST, 0, 1);
@@ -391,7 +473,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByItem_Owner_IdAndEndIsAfter(anyInt(), any(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getListAllReservationUser(1, FUTURE, 0, 1);
@@ -400,13 +482,29 @@ class BookingServiceImplTest {
         assertEquals("item", bookingDto.get(0).getItem().getName());
     }
 
+    @Test
+    public void getListAllReservationUserStatusFutureByPhase() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
+
+        when(userRepository.existsById(anyInt())).thenReturn(true);
+        when(bookingRepository.findByItem_Owner_IdAndPhaseIn(eq(1), eq(EnumSet.of(BookingPhase.UPCOMING, BookingPhase.ACTIVE)),
+                any(Pageable.class))).thenReturn(List.of(booking));
+
+        List<BookingDto> bookingDto = bookingService(BookingStateMode.PHASE).getListAllReservationUser(1, FUTURE, 0, 1);
+
+        assertEquals(1, bookingDto.size());
+        verify(bookingRepository, times(0)).findByItem_Owner_IdAndEndIsAfter(anyInt(), any(), any(Pageable.class));
+    }
+
     @Test
     public void getListAllReservationUserStatusCurrent() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, APPROVED);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(anyInt(), any(), any(), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getListAllReservationUser(1, CURRENT, 0, 1);
@@ -421,7 +519,7 @@ class BookingServiceImplTest {
         Item item = new Item("item", "description", true, user);
         Booking booking = new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user, WAITING);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(bookingRepository.findByItem_Owner_IdAndStatus(anyInt(), eq(WAITING), any(Pageable.class))).thenReturn(List.of(booking));
 
         List<BookingDto> bookingDto = bookingService.getListAllReservationUser(1, WAITING, 0, 1);
@@ -433,10 +531,82 @@ class BookingServiceImplTest {
     @Test
     public void getListAllReservationUserUnsupported() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
 
         assertThrows(BookingBadRequest.class, () -> {
             bookingService.getListAllReservationUser(1, UNSUPPORTED_STATUS, 0, 1);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getBookingsByBrokenCursor() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+
+        when(userRepository.existsById(anyInt())).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> {
+            bookingService.getAllBookingsUser(ALL, 1, "не-курсор", 10);
+        });
+    }
+
+    @Test
+    public void postBookingsBatchReturnsResultPerEntry() {
+        User owner = new User(1, "Вася", "asdfgh@gmail.com");
+        User booker = new User(2, "Петя", "qsqwfgh@gmail.com");
+        Item item = new Item("item", "description", true, owner);
+        item.setId(1);
+        Item mine = new Item("mine", "description", true, booker);
+        mine.setId(2);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        List<BookingDtoJson> batch = List.of(
+                new BookingDtoJson(1, start, start.plusHours(2)),
+                new BookingDtoJson(3, start, start.plusHours(1)),
+                new BookingDtoJson(2, start, start.plusHours(1)),
+                new BookingDtoJson(1, start.plusHours(1), start.plusHours(3)),
+                new BookingDtoJson(1, start.plusHours(2), start.plusHours(3)),
+                new BookingDtoJson(1, start.minusDays(1), start));
+
+        when(userRepository.findById(2)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item, mine));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResult> results = bookingService.postBookings(2, batch);
+
+        assertEquals(List.of(200, 404, 404, 200, 200, 400),
+                results.stream().map(BookingBatchResult::getStatus).collect(Collectors.toList()));
+        assertEquals(WAITING, results.get(0).getBooking().getStatus());
+        assertEquals("Петя", results.get(4).getBooking().getBooker().getName());
+        assertNull(results.get(1).getBooking());
+    }
+
+    @Test
+    public void postBookingsBatchTreatsOverlapsLikeSingleEndpoint() {
+        User owner = new User(1, "Вася", "asdfgh@gmail.com");
+        User booker = new User(2, "Петя", "qsqwfgh@gmail.com");
+        Item item = new Item("item", "description", true, owner);
+        item.setId(1);
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        bookingIndex.update(new Booking(10, start.plusHours(5), start.plusHours(6), item, owner, APPROVED));
+        List<BookingDtoJson> batch = List.of(
+                new BookingDtoJson(1, start, start.plusHours(2)),
+                new BookingDtoJson(1, start.plusHours(1), start.plusHours(3)),
+                new BookingDtoJson(1, start.plusHours(4), start.plusHours(5).plusMinutes(30)));
+
+        when(userRepository.findById(2)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(anySet())).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResult> results = bookingService.postBookings(2, batch);
+
+        assertEquals(List.of(200, 200, 404),
+                results.stream().map(BookingBatchResult::getStatus).collect(Collectors.toList()));
+        assertEquals("На данное время предмет забронирован", results.get(2).getError());
+    }
+
+    @Test
+    public void postBookingsEmptyBatch() {
+        assertThrows(ValidationException.class, () -> {
+            bookingService.postBookings(1, List.of());
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemLockTableTest {
+
+    private final ItemLockTable itemLocks = new ItemLockTable(64);
+
+    @Test
+    public void sameItemIsSerialized() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    itemLocks.withItem(7, () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        counter[0]++;
+                        return inside.decrementAndGet();
+                    });
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(8000, itemLocks.withItem(7, () -> counter[0]));
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    public void otherItemIsNotBlocked() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> itemLocks.withItem(1, () -> {
+            held.countDown();
+            try {
+                return release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertTrue(held.await(10, TimeUnit.SECONDS));
+
+        assertEquals(2, CompletableFuture.supplyAsync(() -> itemLocks.withItem(2, () -> 2)).get(10, TimeUnit.SECONDS));
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void overlappingItemSetsDoNotDeadlock() throws Exception {
+        List<Set<Integer>> sets = List.of(Set.of(1, 2, 3), Set.of(3, 4, 1), Set.of(4, 2), Set.of(5, 3, 2, 1));
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(sets.size());
+        for (Set<Integer> items : sets) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    itemLocks.withItems(items, done::incrementAndGet);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(sets.size() * 1000, done.get());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class EntityCacheIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void before() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void repeatedUserReadHitsCache() {
+        UserDto user = userService.postUser(new UserDto("Вася", "asdfgh@gmail.com"));
+        statistics.clear();
+
+        userService.getUserById(user.getId());
+        userService.getUserById(user.getId());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", User.class.getName(), "result", "hit")
+                .functionCounter());
+    }
+
+    @Test
+    public void userUpdateAndDeleteInvalidateCache() {
+        UserDto user = userService.postUser(new UserDto("Вася", "asdfgh@gmail.com"));
+        userService.getUserById(user.getId());
+
+        userService.updateUser(new UserDto("Петя", null), user.getId());
+
+        assertEquals("Петя", userService.getUserById(user.getId()).getName());
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(user.getId()));
+    }
+
+    @Test
+    public void itemUpdateAndDeleteInvalidateCache() {
+        UserDto owner = userService.postUser(new UserDto("Вася", "asdfgh@gmail.com"));
+        ItemDto item = itemService.postItem(new ItemDto("Дрель", "Простая дрель", true), owner.getId());
+        itemService.getItemById(item.getId(), owner.getId());
+        statistics.clear();
+
+        itemService.getItemById(item.getId(), owner.getId());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        itemService.update(new ItemDto(null, "Ударная дрель", null), item.getId(), owner.getId());
+
+        assertEquals("Ударная дрель", itemService.getItemById(item.getId(), owner.getId()).getDescription());
+
+        itemService.delete(item.getId(), owner.getId());
+
+        assertThrows(ItemNotFoundException.class, () -> itemService.getItemById(item.getId(), owner.getId()));
+    }
+}
@@ -163,7 +163,7 @@ class ItemControllerTest {
         ItemDto itemDto2 = new ItemDto(2, "item2", "description2", true, null);
         List<ItemDto> responses = List.of(itemDto2);
 
-        when(itemService.search(text)).thenReturn(responses);
+        when(itemService.search(text, 0, null)).thenReturn(responses);
         mvc.perform(get("/items/search")
                         .param("text", text)
                         .content(mapper.writeValueAsString(text))
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Замер задержек поиска в обоих режимах. Режим database имеет смысл мерить только на PostgreSQL,
+ * где миграция V3 создает триграммные индексы (см. {@link PostgresqlTestDatabase}). Запуск:
+ * mvn test -Dtest=ItemSearchBenchmarkTest -Dshareit.benchmark=true -Dshareit.benchmark.rows=100000,1000000
+ * -Dshareit.test.postgresql.url=jdbc:postgresql://localhost:5432/shareit_bench
+ */
+@Slf4j
+@SpringBootTest
+@Import(PostgresqlTestDatabase.CleanMigration.class)
+@DirtiesContext
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+class ItemSearchBenchmarkTest {
+
+    private static final String[] WORDS = {"дрель", "пила", "отвертка", "молоток", "лестница", "палатка",
+        "велосипед", "шуруповерт", "перфоратор", "рюкзак", "удочка", "самокат"};
+    private static final int QUERIES = 500;
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresql(DynamicPropertyRegistry registry) {
+        if (PostgresqlTestDatabase.configured()) {
+            PostgresqlTestDatabase.register(registry);
+        } else {
+            log.warn("База PostgreSQL не задана, замер режима database идет на H2 без триграммных индексов.");
+        }
+    }
+
+    @Test
+    public void searchLatency() throws Exception {
+        String[] sizes = System.getProperty("shareit.benchmark.rows", "100000,1000000").split(",");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'bench', 'bench@mail.ru')");
+
+        int rows = 0;
+        for (String size : sizes) {
+            int target = Integer.parseInt(size.trim());
+            seed(rows, target);
+            jdbcTemplate.execute("analyze");
+            rows = target;
+
+            for (ItemSearchMode mode : ItemSearchMode.values()) {
+                ItemSearchEngine engine = new ItemSearchEngine(itemRepository, dataSource, mode);
+                engine.init();
+                measure(engine, mode, rows);
+            }
+        }
+    }
+
+    private void seed(int from, int to) {
+        Random random = new Random(from);
+        List<Object[]> batch = new ArrayList<>();
+        for (int id = from + 1; id <= to; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + id;
+            String description = WORDS[random.nextInt(WORDS.length)] + " и " + WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Object[]{id, name, description, random.nextInt(10) > 0});
+            if (batch.size() == 10_000 || id == to) {
+                jdbcTemplate.batchUpdate("insert into item (id, name, description, is_available, owner_id) " +
+                        "values (?, ?, ?, ?, 1)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void measure(ItemSearchEngine engine, ItemSearchMode mode, int rows) {
+        Random random = new Random(rows);
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String query = word.substring(0, 3 + random.nextInt(word.length() - 3));
+            long start = System.nanoTime();
+            engine.search(query, 0, 10);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        log.info("Поиск, режим {}, строк {}: p50 {} мкс, p99 {} мкс.", mode, rows,
+                latencies[QUERIES / 2] / 1000, latencies[QUERIES * 99 / 100] / 1000);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.item.search.mode=database")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ItemSearchEngineIntegrationTest {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemSearchEngine searchEngine;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void before() {
+        userService.postUser(new UserDto("Вася", "asdfgh@gmail.com"));
+        itemService.postItem(new ItemDto("Дрель", "Простая дрель", true), 1);
+        itemService.postItem(new ItemDto("Отвертка", "Аккумуляторная отвертка", true), 1);
+        itemService.postItem(new ItemDto("Дрель ударная", "Сломана", false), 1);
+    }
+
+    @Test
+    public void searchInDatabase() {
+        List<ItemDto> items = itemService.search("ДРЕЛ", 0, null);
+
+        assertEquals(1, items.size());
+        assertEquals("Дрель", items.get(0).getName());
+        assertTrue(itemService.search("пила", 0, null).isEmpty());
+    }
+
+    @Test
+    public void searchInDatabaseWithPaging() {
+        assertEquals(2, itemService.search("р", 0, null).size());
+        assertEquals(1, itemService.search("р", 0, 1).size());
+        assertEquals("Отвертка", itemService.search("р", 1, 1).get(0).getName());
+    }
+
+    @Test
+    public void bothModesSkipFromWithAndWithoutSize() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            itemService.postItem(new ItemDto("Пила " + i, "Ручная пила", true), 1);
+        }
+        ItemSearchEngine index = new ItemSearchEngine(itemRepository, dataSource, ItemSearchMode.INDEX);
+        index.init();
+
+        assertEquals(List.of("Пила 2", "Пила 3", "Пила 4"), names(searchEngine.search("пила", 2, Integer.MAX_VALUE)));
+        assertEquals(List.of("Пила 3", "Пила 4"), names(searchEngine.search("пила", 3, 3)));
+        for (int from = 0; from <= 5; from++) {
+            assertEquals(names(index.search("пила", from, Integer.MAX_VALUE)),
+                    names(searchEngine.search("пила", from, Integer.MAX_VALUE)));
+            assertEquals(names(index.search("пила", from, 2)), names(searchEngine.search("пила", from, 2)));
+        }
+        assertEquals(names(searchEngine.search("пила", 3, Integer.MAX_VALUE)), names(itemService.search("пила", 3, null)));
+    }
+
+    private static List<String> names(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getName).collect(Collectors.toList());
+    }
+}
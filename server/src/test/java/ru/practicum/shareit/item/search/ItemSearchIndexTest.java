@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemSearchIndex searchIndex;
+    private User user;
+
+    @BeforeEach
+    public void before() {
+        searchIndex = new ItemSearchIndex(itemRepository);
+        user = new User(1, "Вася", "asdfgh@gmail.com");
+    }
+
+    @Test
+    public void warmUpIndexesAvailableItems() {
+        when(itemRepository.findAllByIsAvailableTrue()).thenReturn(List.of(item(1, "Дрель", "Простая дрель")));
+
+        searchIndex.warmUp();
+
+        assertEquals(1, searchIndex.search("дрель", 0, 10).size());
+    }
+
+    @Test
+    public void substringSearchIgnoresCase() {
+        searchIndex.index(item(1, "Дрель", "Простая дрель"));
+        searchIndex.index(item(2, "Отвертка", "Аккумуляторная отвертка"));
+
+        assertEquals(List.of(1), ids(searchIndex.search("ДРЕл", 0, 10)));
+        assertEquals(List.of(2), ids(searchIndex.search("умуля", 0, 10)));
+        assertEquals(List.of(1, 2), ids(searchIndex.search("р", 0, 10)));
+        assertTrue(searchIndex.search("пила", 0, 10).isEmpty());
+    }
+
+    @Test
+    public void candidatesAreVerifiedAgainstWholeQuery() {
+        searchIndex.index(item(1, "abcxbcd", "description"));
+
+        assertTrue(searchIndex.search("abcd", 0, 10).isEmpty());
+        assertEquals(List.of(1), ids(searchIndex.search("xbcd", 0, 10)));
+    }
+
+    @Test
+    public void nameMatchesRankAboveDescriptionMatches() {
+        searchIndex.index(item(1, "Набор", "Дрель и биты"));
+        searchIndex.index(item(2, "Ударная дрель", "Мощная"));
+        searchIndex.index(item(3, "Дрель", "Простая"));
+
+        assertEquals(List.of(3, 2, 1), ids(searchIndex.search("дрель", 0, 10)));
+        assertEquals(List.of(2), ids(searchIndex.search("дрель", 1, 1)));
+    }
+
+    @Test
+    public void updateAndRemoveKeepIndexInSync() {
+        searchIndex.index(item(1, "Дрель", "Простая дрель"));
+        searchIndex.index(item(1, "Пила", "Ножовка"));
+
+        assertTrue(searchIndex.search("дрель", 0, 10).isEmpty());
+        assertEquals(List.of(1), ids(searchIndex.search("пила", 0, 10)));
+
+        Item unavailable = item(1, "Пила", "Ножовка");
+        unavailable.setIsAvailable(false);
+        searchIndex.index(unavailable);
+
+        assertTrue(searchIndex.search("пила", 0, 10).isEmpty());
+
+        searchIndex.index(item(2, "Пила", "Ножовка"));
+        searchIndex.remove(2);
+
+        assertTrue(searchIndex.search("пила", 0, 10).isEmpty());
+    }
+
+    private Item item(int id, String name, String description) {
+        Item item = new Item(name, description, true, user);
+        item.setId(id);
+        return item;
+    }
+
+    private List<Integer> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
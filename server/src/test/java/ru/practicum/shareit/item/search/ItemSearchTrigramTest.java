@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Поиск в режиме database на PostgreSQL: нативный запрос searchTrigram и GIN-индексы pg_trgm из V3.
+ */
+@SpringBootTest(properties = "shareit.item.search.mode=database")
+@Import(PostgresqlTestDatabase.CleanMigration.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@EnabledIfSystemProperty(named = PostgresqlTestDatabase.URL, matches = ".+")
+class ItemSearchTrigramTest {
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private int ownerId;
+
+    @DynamicPropertySource
+    static void postgresql(DynamicPropertyRegistry registry) {
+        PostgresqlTestDatabase.register(registry);
+    }
+
+    @BeforeEach
+    public void before() {
+        ownerId = userService.postUser(new UserDto("Вася", "asdfgh@gmail.com")).getId();
+        itemService.postItem(new ItemDto("Дрель", "Простая дрель", true), ownerId);
+        itemService.postItem(new ItemDto("Отвертка", "Аккумуляторная отвертка", true), ownerId);
+        itemService.postItem(new ItemDto("Дрель ударная", "Сломана", false), ownerId);
+        itemService.postItem(new ItemDto("Шуруповерт", "Почти ДРЕЛЬ", true), ownerId);
+    }
+
+    @Test
+    public void nativeQueryFindsAvailableItemsByFragment() {
+        assertEquals(List.of("Дрель", "Шуруповерт"),
+                names(itemRepository.searchTrigram("дРеЛ", OffsetPageRequest.of(0, 10))));
+        assertEquals(List.of("Шуруповерт"), names(itemRepository.searchTrigram("дрел", OffsetPageRequest.of(1, 10))));
+        assertEquals(List.of("Отвертка"), itemService.search("аккум", 0, null).stream()
+                .map(ItemDto::getName)
+                .collect(Collectors.toList()));
+        assertTrue(itemService.search("пила", 0, null).isEmpty());
+    }
+
+    @Test
+    public void fragmentSearchUsesTrigramIndexes() {
+        String plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("explain select * from item i " +
+                    "where i.is_available = true and (lower(i.name) like lower(concat('%', ?, '%')) " +
+                    "or lower(i.description) like lower(concat('%', ?, '%'))) order by i.id", String.class,
+                    "дрел", "дрел"));
+        });
+
+        assertTrue(plan.contains("idx_item_name_trgm"), plan);
+        assertTrue(plan.contains("idx_item_description_trgm"), plan);
+    }
+
+    private static List<String> names(List<Item> items) {
+        return items.stream().map(Item::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * Настоящая база PostgreSQL для проверок, которые на H2 не воспроизводятся: триграммные индексы pg_trgm (V3)
+ * и прочие миграции из db/migration/postgresql. Адрес задается системными свойствами, например
+ * -Dshareit.test.postgresql.url=jdbc:postgresql://localhost:5432/shareit_test
+ * -Dshareit.test.postgresql.username=shareit -Dshareit.test.postgresql.password=shareit
+ * Без адреса такие тесты пропускаются. Перед запуском контекста схема очищается, поэтому база нужна отдельная.
+ */
+final class PostgresqlTestDatabase {
+
+    static final String URL = "shareit.test.postgresql.url";
+    static final String USERNAME = "shareit.test.postgresql.username";
+    static final String PASSWORD = "shareit.test.postgresql.password";
+
+    private PostgresqlTestDatabase() {
+    }
+
+    static boolean configured() {
+        String url = System.getProperty(URL);
+        return url != null && !url.isBlank();
+    }
+
+    static void register(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.url", () -> System.getProperty(URL));
+        registry.add("spring.datasource.username", () -> System.getProperty(USERNAME, "shareit"));
+        registry.add("spring.datasource.password", () -> System.getProperty(PASSWORD, ""));
+        registry.add("spring.flyway.clean-disabled", () -> "false");
+    }
+
+    @TestConfiguration
+    static class CleanMigration {
+
+        @Bean
+        public FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -120,7 +120,7 @@ class ItemServiceImplIntegrationTest {
         ItemDto itemDto = itemService.postItem(item, 1);
         itemService.postItem(item2, 1);
 
-        List<ItemDto> listSearch = itemService.search("item");
+        List<ItemDto> listSearch = itemService.search("item", 0, null);
 
         assertEquals(1, listSearch.size());
         assertEquals(itemDto, listSearch.get(0));
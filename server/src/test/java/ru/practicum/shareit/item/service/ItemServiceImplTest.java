@@ -7,9 +7,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingSummaryMode;
+import ru.practicum.shareit.booking.service.BookingSummaryService;
 import ru.practicum.shareit.exception.BookingBadRequest;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CommentDtoJson;
 import ru.practicum.shareit.item.dto.item.ItemDto;
@@ -18,10 +22,13 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchMode;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -47,9 +54,18 @@ class ItemServiceImplTest {
     @Mock
     private RequestRepository requestRepository;
 
+    private ItemSearchEngine searchEngine;
+    private BookingIntervalIndex bookingIndex;
+
     @BeforeEach
-    public void before() {
-        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, requestRepository);
+    public void before() throws Exception {
+        searchEngine = new ItemSearchEngine(itemRepository, null, ItemSearchMode.INDEX);
+        searchEngine.init();
+        bookingIndex = new BookingIntervalIndex(bookingRepository, true, false);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository,
+                requestRepository, searchEngine,
+                new BookingSummaryService(bookingRepository, bookingIndex, BookingSummaryMode.INDEX),
+                new UserExistenceService(userRepository, true));
     }
 
     @Test
@@ -63,7 +79,7 @@ class ItemServiceImplTest {
 
         List<Integer> itemsId = Arrays.asList(item.getId(), item1.getId());
 
-        when(itemRepository.findAllByOwnerId(anyInt())).thenReturn(List.of(item, item1));
+        when(itemRepository.findAllByOwnerIdOrderByIdAsc(anyInt())).thenReturn(List.of(item, item1));
         when(commentRepository.findByItemIdIn(anyList())).thenReturn(List.of(comment));
 
         List<ItemDtoResponse> items = itemService.getAllItems(1);
@@ -86,10 +102,8 @@ class ItemServiceImplTest {
         Booking bookingNext = new Booking(2, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user1, APPROVED);
 
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(Collections.singletonList(bookingLast));
-        when(bookingRepository.findNextBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(Collections.singletonList(bookingNext));
+        bookingIndex.update(bookingLast);
+        bookingIndex.update(bookingNext);
         when(commentRepository.findByItemId(anyInt()))
                 .thenReturn(Collections.singletonList(comment));
 
@@ -101,6 +115,45 @@ class ItemServiceImplTest {
         assertEquals(2, itemResponse.getNextBooking().getId());
     }
 
+    @Test
+    public void getAllItemsLastAndNextBooking() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        User user1 = new User(2, "Петя", "qsafrsfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        item.setId(1);
+        LocalDateTime now = LocalDateTime.now();
+        bookingIndex.update(new Booking(1, now.minusDays(3), now.minusDays(2), item, user1, APPROVED));
+        bookingIndex.update(new Booking(2, now.minusHours(4), now.minusHours(2), item, user1, APPROVED));
+        bookingIndex.update(new Booking(3, now.minusHours(1), now.minusMinutes(30), item, user1, REJECTED));
+        bookingIndex.update(new Booking(4, now.plusHours(2), now.plusHours(3), item, user1, APPROVED));
+        bookingIndex.update(new Booking(5, now.plusDays(2), now.plusDays(3), item, user1, APPROVED));
+
+        when(itemRepository.findAllByOwnerIdOrderByIdAsc(anyInt())).thenReturn(List.of(item));
+
+        ItemDtoResponse itemResponse = itemService.getAllItems(1).get(0);
+
+        assertEquals(2, itemResponse.getLastBooking().getId());
+        assertEquals(2, itemResponse.getLastBooking().getBookerId());
+        assertEquals(4, itemResponse.getNextBooking().getId());
+    }
+
+    @Test
+    public void getItemByIdNotOwnerWithoutBookings() {
+        User user = new User(1, "Вася", "asdfgh@gmail.com");
+        User user1 = new User(2, "Петя", "qsafrsfgh@gmail.com");
+        Item item = new Item("item", "description", true, user);
+        item.setId(1);
+        bookingIndex.update(new Booking(1, LocalDateTime.now().plusHours(2), LocalDateTime.now().plusHours(3), item, user1, APPROVED));
+
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemId(anyInt())).thenReturn(List.of());
+
+        ItemDtoResponse itemResponse = itemService.getItemById(1, 2);
+
+        assertNull(itemResponse.getLastBooking());
+        assertNull(itemResponse.getNextBooking());
+    }
+
     @Test
     public void getItemByIdNullLastAndNextBooking() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
@@ -112,10 +165,6 @@ class ItemServiceImplTest {
         Comment comment = new Comment(1, "comment", item, user, LocalDateTime.now());
 
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(List.of());
-        when(bookingRepository.findNextBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(List.of());
         when(commentRepository.findByItemId(anyInt()))
                 .thenReturn(Collections.singletonList(comment));
 
@@ -135,10 +184,6 @@ class ItemServiceImplTest {
         item.setId(1);
 
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(List.of());
-        when(bookingRepository.findNextBookingByOwnerId(eq(1), eq(1), eq(REJECTED), any()))
-                .thenReturn(List.of());
         when(commentRepository.findByItemId(anyInt()))
                 .thenReturn(List.of());
 
@@ -159,7 +204,7 @@ class ItemServiceImplTest {
 
         int userId = 1;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         Item item = new Item("item", "description", true, null);
         item.setId(1);
@@ -179,7 +224,7 @@ class ItemServiceImplTest {
 
         int userId = 1;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(requestRepository.getReferenceById(itemDto.getRequestId())).thenReturn(request);
 
         Item item = new Item(1, "item", "description", true, user, request);
@@ -263,7 +308,7 @@ class ItemServiceImplTest {
 
     @Test
     public void searchItemIsBlank() {
-        List<ItemDto> search = itemService.search("");
+        List<ItemDto> search = itemService.search("", 0, null);
         assertTrue(search.isEmpty());
     }
 
@@ -274,13 +319,20 @@ class ItemServiceImplTest {
         itemDto.setId(1);
         Item item = new Item(1, "item", "description", true, user, null);
 
-        when(itemRepository.search(anyString())).thenReturn(List.of(item));
+        searchEngine.index(item);
 
-        List<ItemDto> search = itemService.search("item");
+        List<ItemDto> search = itemService.search("item", 0, null);
 
         assertEquals(itemDto, search.get(0));
     }
 
+    @Test
+    public void searchItemFailPageable() {
+        assertThrows(ValidationException.class, () -> {
+            itemService.search("item", -1, 0);
+        });
+    }
+
     @Test
     public void commentItemGood() {
         LocalDateTime time = LocalDateTime.of(2023, 9, 16, 14, 30);
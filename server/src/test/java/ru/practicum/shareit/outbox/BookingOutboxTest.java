@@ -0,0 +1,222 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDtoJson;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingNotFoundException;
+import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.outbox.sink.OutboxSink;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.BookingStatusEnum.APPROVED;
+import static ru.practicum.shareit.booking.BookingStatusEnum.WAITING;
+
+@SpringBootTest(properties = {
+        "shareit.outbox.sinks=listener,file,flaky,broken",
+        "shareit.outbox.file.path=target/outbox-test/booking-events.ndjson",
+        "shareit.outbox.poll-interval=200ms",
+        "shareit.outbox.retry.initial-backoff=50ms",
+        "shareit.outbox.retry.max-attempts=3"
+})
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BookingOutboxTest {
+
+    private static final Path FILE = Path.of("target/outbox-test/booking-events.ndjson");
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReceivedEvents received;
+    @Autowired
+    private FlakySink flakySink;
+    @Autowired
+    private OutboxDeliveryRepository deliveryRepository;
+
+    private int ownerId;
+    private int bookerId;
+    private int itemId;
+
+    @BeforeEach
+    public void before() throws Exception {
+        Files.deleteIfExists(FILE);
+        ownerId = userService.postUser(new UserDto("Вася", "owner@mail.ru")).getId();
+        bookerId = userService.postUser(new UserDto("Игорь", "booker@mail.ru")).getId();
+        itemId = itemService.postItem(new ItemDto("item", "description", true), ownerId).getId();
+    }
+
+    @Test
+    public void statusChangesReachAllSinks() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, start.plusHours(1))).getId();
+        bookingService.patchApproved(true, bookingId, ownerId);
+
+        await(() -> received.events().size() == 2);
+        assertEquals(List.of(WAITING, APPROVED), received.events().stream()
+                .map(BookingStatusEvent::getStatus)
+                .collect(Collectors.toList()));
+        assertTrue(received.events().stream()
+                .allMatch(event -> event.getBookingId() == bookingId && event.getItemId() == itemId));
+        await(() -> pendingDeliveries() == 0);
+        assertEquals(2, Files.readAllLines(FILE).size());
+        assertTrue(flakySink.failures.get() > 0);
+        assertTrue(flakySink.deliveredInTransaction.isEmpty());
+    }
+
+    @Test
+    public void brokenSinkIsDeadLetteredWithoutHoldingOthers() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, start.plusHours(1))).getId();
+        bookingService.patchApproved(true, bookingId, ownerId);
+
+        await(() -> deliveryRepository.countBySinkAndDeadLetteredAtIsNotNull("broken") == 2);
+        await(() -> pendingDeliveries() == 0);
+        assertEquals(2, received.events().size());
+        assertEquals(2, Files.readAllLines(FILE).size());
+        assertEquals(2, outboxSize());
+    }
+
+    @Test
+    public void rolledBackChangeIsNotPublished() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        int bookingId = bookingService.postBookings(bookerId, new BookingDtoJson(itemId, start, start.plusHours(1))).getId();
+        await(() -> received.events().size() == 1);
+        int recorded = outboxSize();
+
+        assertThrows(BookingNotFoundException.class, () -> bookingService.patchApproved(true, bookingId, bookerId));
+
+        assertEquals(recorded, outboxSize());
+        assertEquals(List.of(WAITING), received.events().stream()
+                .map(BookingStatusEvent::getStatus)
+                .collect(Collectors.toList()));
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("select count(*) from booking_outbox", Integer.class);
+    }
+
+    private int pendingDeliveries() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from booking_outbox_delivery where dead_lettered_at is null", Integer.class);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Событие не дошло за 10 секунд.");
+            Thread.sleep(50);
+        }
+    }
+
+    @TestConfiguration
+    static class Sinks {
+
+        @Bean
+        public ReceivedEvents receivedEvents() {
+            return new ReceivedEvents();
+        }
+
+        @Bean
+        public FlakySink flakySink() {
+            return new FlakySink();
+        }
+
+        @Bean
+        public BrokenSink brokenSink() {
+            return new BrokenSink();
+        }
+    }
+
+    /**
+     * Доставка не реже одного раза: повторно пришедшие события отбрасываются по eventId.
+     */
+    static class ReceivedEvents {
+
+        private final Map<Long, BookingStatusEvent> events = new LinkedHashMap<>();
+
+        @EventListener
+        public synchronized void on(BookingStatusEvent event) {
+            events.putIfAbsent(event.getEventId(), event);
+        }
+
+        public synchronized List<BookingStatusEvent> events() {
+            return new ArrayList<>(events.values());
+        }
+    }
+
+    /**
+     * Отказывает при первой доставке каждой пачки, чтобы рассылка ушла на повтор.
+     */
+    static class FlakySink implements OutboxSink {
+
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Queue<Boolean> deliveredInTransaction = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String name() {
+            return "flaky";
+        }
+
+        @Override
+        public void deliver(List<BookingStatusEvent> events) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                deliveredInTransaction.add(true);
+            }
+            if (calls.incrementAndGet() % 2 == 1) {
+                failures.incrementAndGet();
+                throw new IllegalStateException("Получатель недоступен.");
+            }
+        }
+    }
+
+    /**
+     * Никогда не принимает события: после max-attempts попыток они уходят в dead letter.
+     */
+    static class BrokenSink implements OutboxSink {
+
+        @Override
+        public String name() {
+            return "broken";
+        }
+
+        @Override
+        public void deliver(List<BookingStatusEvent> events) {
+            throw new IllegalStateException("Получатель не отвечает.");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.outbox.sink;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.practicum.shareit.outbox.BookingStatusEvent;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.BookingStatusEnum.APPROVED;
+
+class WebhookOutboxSinkTest {
+
+    private HttpServer server;
+    private final AtomicReference<String> body = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(204);
+    private WebhookOutboxSink sink;
+
+    @BeforeEach
+    public void before() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/outbox/webhook", exchange -> {
+            body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        sink = new WebhookOutboxSink(new RestTemplateBuilder(),
+                "http://localhost:" + server.getAddress().getPort() + "/outbox/webhook", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    public void after() {
+        server.stop(0);
+    }
+
+    @Test
+    public void postsBatchAsJsonArray() {
+        sink.deliver(List.of(event()));
+
+        assertTrue(body.get().startsWith("[{"));
+        assertTrue(body.get().contains("\"eventId\":7"));
+        assertTrue(body.get().contains("\"status\":\"APPROVED\""));
+    }
+
+    @Test
+    public void serverErrorFailsDelivery() {
+        status.set(503);
+
+        assertThrows(HttpServerErrorException.class, () -> sink.deliver(List.of(event())));
+    }
+
+    private static BookingStatusEvent event() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return new BookingStatusEvent(7, 1, 2, 3, APPROVED, start, start.plusHours(1), LocalDateTime.now());
+    }
+}
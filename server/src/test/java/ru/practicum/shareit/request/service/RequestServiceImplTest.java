@@ -18,6 +18,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceService;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -43,7 +44,8 @@ class RequestServiceImplTest {
 
     @BeforeEach
     public void before() {
-        requestService = new RequestServiceImpl(requestRepository, itemRepository, userRepository);
+        requestService = new RequestServiceImpl(requestRepository, itemRepository, userRepository,
+                new UserExistenceService(userRepository, true));
     }
 
     @Test
@@ -58,7 +60,7 @@ class RequestServiceImplTest {
     @Test
     public void createRequestNullUser() {
         ItemRequestJson requestJson = new ItemRequestJson("nozh");
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             requestService.createRequest(1, requestJson);
@@ -73,7 +75,7 @@ class RequestServiceImplTest {
         ItemRequest request = new ItemRequest(1, "nozh", user, LocalDateTime.now());
         ItemRequestDto requestDto = new ItemRequestDto(1, "nozh", 1, LocalDateTime.now());
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(requestRepository.save(any())).thenReturn(request);
 
         ItemRequestDto itemRequestDtoResponse = requestService.createRequest(1, requestJson);
@@ -84,7 +86,7 @@ class RequestServiceImplTest {
 
     @Test
     public void getAllRequestByUserNullUser() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             requestService.getAllRequestByUser(1);
@@ -98,7 +100,7 @@ class RequestServiceImplTest {
         ItemRequest request = new ItemRequest(1, "nozh", user, LocalDateTime.now());
         ItemRequest request1 = new ItemRequest(2, "pila dvurychka", user, LocalDateTime.now());
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(requestRepository.findByRequesterId(anyInt())).thenReturn(Arrays.asList(request, request1));
 
         List<ItemRequestResponse> requestDtoList = requestService.getAllRequestByUser(1);
@@ -110,7 +112,7 @@ class RequestServiceImplTest {
 
     @Test
     public void getAllRequestNullUser() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             requestService.getAllRequest(1, 0,1);
@@ -123,7 +125,7 @@ class RequestServiceImplTest {
         ItemRequest request = new ItemRequest(1, "nozh", user, LocalDateTime.now());
         ItemRequest request1 = new ItemRequest(2, "pila dvurychka", user, LocalDateTime.now());
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(requestRepository.findAllByRequesterIdNot(anyInt(), any(Pageable.class))).thenReturn(Arrays.asList(request, request1));
         List<ItemRequestResponse> itemRequestResponses = requestService.getAllRequest(1, 0, 1);
 
@@ -134,7 +136,7 @@ class RequestServiceImplTest {
 
     @Test
     public void getRequestByIdNullUser() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.existsById(anyInt())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             requestService.getRequestById(1, 1);
@@ -145,7 +147,7 @@ class RequestServiceImplTest {
     public void getRequestByIdNullRequest() {
         User user = new User(1, "Вася", "asdfgh@gmail.com");
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(requestRepository.findById(anyInt())).thenReturn(Optional.empty());
 
         assertThrows(RequestNotFoundException.class, () -> {
@@ -159,7 +161,7 @@ class RequestServiceImplTest {
         ItemRequest request = new ItemRequest(1, "nozh", user, LocalDateTime.now());
         Item item = new Item(1, "item", "description", true, user, request);
 
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(userRepository.existsById(anyInt())).thenReturn(true);
         when(requestRepository.findById(anyInt())).thenReturn(Optional.of(request));
         when(itemRepository.findAllByRequestId(anyInt())).thenReturn(Arrays.asList(item));
 
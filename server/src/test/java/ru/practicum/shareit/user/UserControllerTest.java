@@ -16,9 +16,11 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -92,6 +94,21 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email", is(userDto.getEmail())));
     }
 
+    @Test
+    public void getUserByIdNotModified() throws Exception {
+        int userId = 1;
+
+        when(userService.getUserETag(userId)).thenReturn("1f2e3d");
+
+        mvc.perform(get("/users/{id}", userId)
+                        .header("If-None-Match", "\"1f2e3d\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1f2e3d\""));
+
+        verify(userService, never()).getUserById(anyInt());
+    }
+
     @Test
     public void updateUser() throws Exception {
         int userId = 1;
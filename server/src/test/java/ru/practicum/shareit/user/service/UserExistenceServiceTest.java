@@ -0,0 +1,75 @@
+package ru.practicum.shareit.user.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserExistenceServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserExistenceService userExistence;
+
+    @BeforeEach
+    public void before() {
+        userExistence = new UserExistenceService(userRepository, true);
+    }
+
+    @Test
+    public void warmedUpUsersAreCheckedInMemory() {
+        when(userRepository.findAllIds()).thenReturn(List.of(1, 3));
+
+        userExistence.warmUp();
+
+        assertTrue(userExistence.exists(1));
+        assertTrue(userExistence.exists(3));
+        verify(userRepository, never()).existsById(1);
+    }
+
+    @Test
+    public void missFallsBackToDatabase() {
+        when(userRepository.existsById(2)).thenReturn(true);
+
+        assertTrue(userExistence.exists(2));
+        assertTrue(userExistence.exists(2));
+        verify(userRepository, times(1)).existsById(2);
+    }
+
+    @Test
+    public void removedUserIsRecheckedInDatabase() {
+        userExistence.add(1);
+        userExistence.remove(1);
+        when(userRepository.existsById(1)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userExistence.requireExists(1));
+        assertFalse(userExistence.exists(-1));
+    }
+
+    @Test
+    public void disabledBitmapAsksDatabaseEveryTime() {
+        UserExistenceService databaseOnly = new UserExistenceService(userRepository, false);
+        databaseOnly.warmUp();
+        databaseOnly.add(1);
+        when(userRepository.existsById(1)).thenReturn(true, false);
+
+        assertTrue(databaseOnly.exists(1));
+        assertFalse(databaseOnly.exists(1));
+        verify(userRepository, never()).findAllIds();
+    }
+}
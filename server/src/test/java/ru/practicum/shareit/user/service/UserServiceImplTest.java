@@ -31,7 +31,7 @@ class UserServiceImplTest {
 
     @BeforeEach
     public void before() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, new UserExistenceService(userRepository, true));
     }
 
     @Test